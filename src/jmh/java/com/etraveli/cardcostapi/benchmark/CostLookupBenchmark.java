@@ -0,0 +1,175 @@
+package com.etraveli.cardcostapi.benchmark;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.config.ResilienceConfig;
+import com.etraveli.cardcostapi.config.RestTemplateConfig;
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.repository.ClearingCostChangeRepository;
+import com.etraveli.cardcostapi.repository.ClearingCostRepository;
+import com.etraveli.cardcostapi.service.BinCountryCache;
+import com.etraveli.cardcostapi.service.BinCountryStore;
+import com.etraveli.cardcostapi.service.BinlistAsyncClient;
+import com.etraveli.cardcostapi.service.BinlistHedging;
+import com.etraveli.cardcostapi.service.BinlistRateLimiter;
+import com.etraveli.cardcostapi.service.BinlistService;
+import com.etraveli.cardcostapi.service.ClearingCostService;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshot;
+import com.etraveli.cardcostapi.service.LocalBinResolver;
+import com.etraveli.cardcostapi.service.PricingMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path of {@code GET /payment-cards-cost/{cardNumber}} below the controller: validation,
+ * BIN resolution and the country-to-cost lookup, wired as in the application but against {@link StubBinlist}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CostLookupBenchmark {
+
+    private static final String CARD_NUMBER = "4571736000000000";
+
+    private StubBinlist stubBinlist;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private BinlistService binlistService;
+    private ClearingCostService clearingCostService;
+    private long nextBin = 40_000_000L;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stubBinlist = new StubBinlist();
+        BinlistProperties properties = new BinlistProperties();
+        properties.getApi().setBaseUrl(stubBinlist.baseUrl());
+        // No database here: the bin_country table is left out of the measured path
+        properties.getStore().setEnabled(false);
+        // Nor client-side pacing, which would measure the configured quota rather than the code
+        properties.getRateLimit().setEnabled(false);
+        PricingMetrics pricingMetrics = new PricingMetrics(new SimpleMeterRegistry());
+
+        RestTemplateConfig restTemplateConfig = new RestTemplateConfig();
+        connectionManager = restTemplateConfig.binlistConnectionManager(properties);
+        CircuitBreaker circuitBreaker = new ResilienceConfig().binlistCircuitBreaker(properties);
+        BinlistRateLimiter rateLimiter = new BinlistRateLimiter(properties);
+        binlistService = new BinlistService(restTemplateConfig.binlistRestTemplate(connectionManager, properties),
+                properties, new BinCountryCache(properties), new BinCountryStore(null, properties), circuitBreaker,
+                pricingMetrics, new BinlistAsyncClient(restTemplateConfig.binlistHttpClient(properties),
+                        new ObjectMapper(), properties, circuitBreaker, pricingMetrics, rateLimiter), Runnable::run,
+                rateLimiter, new BinlistHedging(properties));
+        PricingProperties pricingProperties = new PricingProperties();
+        clearingCostService = new ClearingCostService(null, null, binlistService,
+                new LocalBinResolver(properties, new DefaultResourceLoader()),
+                new ClearingCostSnapshot(repositoryOf(
+                        new ClearingCost(1L, "DK", new BigDecimal("7.50")),
+                        new ClearingCost(2L, "OTHER", new BigDecimal("10.00"))), emptyChangeLog(), pricingProperties),
+                event -> { }, Runnable::run, pricingProperties, pricingMetrics);
+
+        // Warm the BIN cache so the cached benchmarks never reach the stub
+        clearingCostService.resolveClearingCost(CARD_NUMBER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionManager.close();
+        stubBinlist.close();
+    }
+
+    @Benchmark
+    public boolean isPanValid() {
+        return clearingCostService.isPanValid(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public boolean isValidLuhn() {
+        return clearingCostService.isValidLuhn(CARD_NUMBER);
+    }
+
+    /**
+     * Validation, cached BIN and cost snapshot lookup: the common case in production.
+     */
+    @Benchmark
+    public ClearingCostResolution resolveClearingCostCached() {
+        return clearingCostService.resolveClearingCost(CARD_NUMBER);
+    }
+
+    /**
+     * Same as {@link #resolveClearingCostCached()} through the asynchronous API, which completes immediately.
+     */
+    @Benchmark
+    public ClearingCostResolution resolveClearingCostAsyncCached() {
+        return clearingCostService.resolveClearingCostAsync(CARD_NUMBER).join();
+    }
+
+    /**
+     * A BIN never seen before, resolved through the pooled HTTP client and the stub.
+     */
+    @Benchmark
+    public BinResolution resolveBinRemote() {
+        nextBin = nextBin < 49_999_999L ? nextBin + 1 : 40_000_000L;
+        return binlistService.resolve(Long.toString(nextBin));
+    }
+
+    /**
+     * A BIN never seen before, resolved through the non-blocking HTTP client and the stub.
+     */
+    @Benchmark
+    public BinResolution resolveBinRemoteAsync() {
+        nextBin = nextBin < 49_999_999L ? nextBin + 1 : 40_000_000L;
+        return binlistService.resolveAsync(Long.toString(nextBin)).join();
+    }
+
+    /**
+     * Change log without any change; the snapshot only reads the time of the last one.
+     */
+    private static ClearingCostChangeRepository emptyChangeLog() {
+        return (ClearingCostChangeRepository) Proxy.newProxyInstance(
+                ClearingCostChangeRepository.class.getClassLoader(),
+                new Class<?>[]{ClearingCostChangeRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findLastChangedAt")) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Read-only repository serving a fixed table; the snapshot only ever calls {@code findAll}.
+     */
+    private static ClearingCostRepository repositoryOf(ClearingCost... costs) {
+        List<ClearingCost> all = List.of(costs);
+        return (ClearingCostRepository) Proxy.newProxyInstance(ClearingCostRepository.class.getClassLoader(),
+                new Class<?>[]{ClearingCostRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return all;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
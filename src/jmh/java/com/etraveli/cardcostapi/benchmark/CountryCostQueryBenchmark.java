@@ -0,0 +1,108 @@
+package com.etraveli.cardcostapi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database lookup of a cost by country code, with and without the unique index that {@code V3} adds to
+ * {@code clearing_cost}, on an in-memory H2 table. The table is scoped by merchant to reach realistic sizes:
+ * {@code merchants=1} is today's table of about 250 countries, larger values model one price list per merchant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountryCostQueryBenchmark {
+
+    private static final int COUNTRIES = 250;
+
+    @Param({"1", "400"})
+    public int merchants;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:country-cost-" + merchants + "-" + indexed);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE merchant_clearing_cost(
+                        id           BIGINT         PRIMARY KEY,
+                        merchant_id  BIGINT         NOT NULL,
+                        country_code VARCHAR(5)     NOT NULL,
+                        cost         DECIMAL(10, 2) NOT NULL
+                    )""");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO merchant_clearing_cost VALUES (?, ?, ?, ?)")) {
+            long id = 0;
+            for (int merchant = 0; merchant < merchants; merchant++) {
+                for (int country = 0; country < COUNTRIES; country++) {
+                    insert.setLong(1, id++);
+                    insert.setLong(2, merchant);
+                    insert.setString(3, countryCode(country));
+                    insert.setBigDecimal(4, BigDecimal.valueOf(500 + country, 2));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        if (indexed) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE merchant_clearing_cost "
+                        + "ADD CONSTRAINT uk_merchant_country UNIQUE (merchant_id, country_code)");
+            }
+        }
+        lookup = connection.prepareStatement(
+                "SELECT cost FROM merchant_clearing_cost WHERE merchant_id = ? AND country_code = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public BigDecimal findByCountryCode() throws SQLException {
+        int row = next++ % (merchants * COUNTRIES);
+        lookup.setLong(1, row / COUNTRIES);
+        lookup.setString(2, countryCode(row % COUNTRIES));
+        try (ResultSet result = lookup.executeQuery()) {
+            return result.next() ? result.getBigDecimal(1) : null;
+        }
+    }
+
+    private static String countryCode(int country) {
+        return new String(new char[]{(char) ('A' + country / 26), (char) ('A' + country % 26)});
+    }
+}
@@ -0,0 +1,59 @@
+package com.etraveli.cardcostapi.benchmark;
+
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON mapping on both ends of a lookup: reading a Binlist answer and writing our response,
+ * with an {@link ObjectMapper} configured like Spring's message converters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private byte[] binlistJson;
+    private ObjectReader binlistReader;
+    private ObjectWriter responseWriter;
+    private BinlistDto.BinlistResponseWithCost response;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        binlistJson = StubBinlist.RESPONSE.getBytes(StandardCharsets.UTF_8);
+        binlistReader = objectMapper.readerFor(BinlistDto.class);
+        responseWriter = objectMapper.writerFor(BinlistDto.BinlistResponseWithCost.class);
+        response = new BinlistDto.BinlistResponseWithCost("DK", new BigDecimal("7.50"), false);
+    }
+
+    @Benchmark
+    public BinlistDto deserializeBinlistDto() throws IOException {
+        return binlistReader.readValue(binlistJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseWithCost() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,68 @@
+package com.etraveli.cardcostapi.benchmark;
+
+import com.etraveli.cardcostapi.service.BinRangeTable;
+import com.etraveli.cardcostapi.service.PanValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PanValidator} with the previous regex based validation, which matched the PAN
+ * against {@code \d+}, ran a second Luhn pass and cut the BIN with {@code substring}.
+ * Run with {@code -prof gc} to compare allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PanValidationBenchmark {
+
+    @Param({"4571736000000000", "45717361", "4571736O00000000"})
+    public String pan;
+
+    @Benchmark
+    public long panValidator() {
+        return PanValidator.validate(pan);
+    }
+
+    @Benchmark
+    public long legacy() {
+        if (!legacyIsValidPanFormat(pan) || !legacyIsValidLuhn(pan)) {
+            return -1L;
+        }
+        return BinRangeTable.binPrefix(pan.substring(0, 8));
+    }
+
+    private static boolean legacyIsValidPanFormat(String pan) {
+        if (pan == null || pan.length() < 8 || pan.length() > 19) {
+            return false;
+        }
+        return pan.matches("\\d+");
+    }
+
+    private static boolean legacyIsValidLuhn(String pan) {
+        int nDigits = pan.length();
+        int sum = 0;
+        boolean isSecond = false;
+        for (int i = nDigits - 1; i >= 0; i--) {
+            int d = pan.charAt(i) - '0';
+            if (isSecond) {
+                d = d * 2;
+            }
+            sum += d > 9 ? d - 9 : d;
+            isSecond = !isSecond;
+        }
+        return sum % 10 == 0;
+    }
+}
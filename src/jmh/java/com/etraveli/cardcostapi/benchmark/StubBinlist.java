@@ -0,0 +1,51 @@
+package com.etraveli.cardcostapi.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process Binlist answering every BIN with the same Danish card, so benchmarks measure
+ * our side of the lookup rather than the network or the public service.
+ */
+final class StubBinlist implements AutoCloseable {
+
+    static final String RESPONSE = """
+            {"number":{"length":16,"luhn":true},"scheme":"visa","type":"debit","brand":"Visa/Dankort",\
+            "prepaid":false,"country":{"numeric":"208","alpha2":"DK","name":"Denmark","emoji":"🇩🇰",\
+            "currency":"DKK","latitude":56,"longitude":10},"bank":{"name":"Jyske Bank",\
+            "url":"www.jyskebank.dk","phone":"+4589893300","city":"Hjørring"}}""";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StubBinlist() throws IOException {
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
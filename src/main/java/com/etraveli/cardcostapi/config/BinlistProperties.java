@@ -0,0 +1,146 @@
+package com.etraveli.cardcostapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Binlist integration, bound from the {@code binlist.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "binlist")
+public class BinlistProperties {
+
+    private Api api = new Api();
+    private Cache cache = new Cache();
+    private Store store = new Store();
+    private LocalTable localTable = new LocalTable();
+    private Executor executor = new Executor();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private RateLimit rateLimit = new RateLimit();
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Api {
+        /** Base URL of the Binlist lookup service. */
+        private String baseUrl = "https://lookup.binlist.net";
+        /** Time allowed to establish a connection to Binlist. */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        /** Time allowed for Binlist to answer once the request is sent. */
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private Pool pool = new Pool();
+        /** Maximum number of Binlist calls in flight at once, whatever the number of threads. */
+        private int maxConcurrentCalls = 64;
+        /** How long a lookup waits for a free call slot before giving up. */
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Pool {
+        /** Maximum number of pooled connections to Binlist. */
+        private int maxConnections = 64;
+        /** How long an idle connection is kept alive for reuse when Binlist does not say otherwise. */
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /** Idle connections older than this are closed by a background evictor. */
+        private Duration idleTimeout = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Cache {
+        /** Maximum number of BIN prefixes kept in memory. */
+        private long maxSize = 10_000;
+        /** How long a resolved BIN is served from memory. */
+        private Duration ttl = Duration.ofHours(24);
+        /** How long a BIN unknown to Binlist is remembered before asking again. */
+        private Duration negativeTtl = Duration.ofMinutes(10);
+        /** How long an expired answer is kept to be served while Binlist is unavailable. */
+        private Duration staleTtl = Duration.ofDays(7);
+    }
+
+    @Data
+    public static class Store {
+        /** Whether resolved BINs are read from and written back to the {@code bin_country} table. */
+        private boolean enabled = true;
+        /** Rows resolved longer ago than this are ignored, except to price cards while Binlist is unavailable. */
+        private Duration ttl = Duration.ofDays(30);
+        /** How often pending rows are written to the table. */
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /** Maximum number of rows written per batch. */
+        private int batchSize = 500;
+        /** Maximum number of rows waiting to be written; further rows are dropped until the next flush. */
+        private int maxPending = 10_000;
+        /** Number of threads reading the table for non-blocking lookups. */
+        private int readPoolSize = 4;
+        /** Maximum number of non-blocking lookups waiting to read the table. */
+        private int readQueueCapacity = 10_000;
+    }
+
+    @Data
+    public static class LocalTable {
+        /** Location of a CSV file of BIN ranges ({@code low,high,country}); empty disables the local table. */
+        private String location;
+    }
+
+    @Data
+    public static class Executor {
+        /** Number of BINs resolved concurrently for batch requests. */
+        private int poolSize = 16;
+        /** Maximum number of BIN lookups waiting for a thread. */
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        /** Percentage of failed calls in the sliding window that opens the breaker. */
+        private float failureRateThreshold = 50;
+        /** Calls slower than this count as slow calls. */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+        /** Percentage of slow calls in the sliding window that opens the breaker. */
+        private float slowCallRateThreshold = 80;
+        /** Number of recent calls the failure and slow-call rates are computed over. */
+        private int slidingWindowSize = 20;
+        /** Minimum number of calls before the rates are evaluated. */
+        private int minimumNumberOfCalls = 10;
+        /** How long the breaker stays open before letting trial calls through. */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        /** Number of trial calls let through while half-open. */
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Data
+    public static class RateLimit {
+        /** Whether outbound Binlist calls are paced on the client side. */
+        private boolean enabled = true;
+        /** Number of calls allowed per refresh period: the Binlist quota of this replica. */
+        private int limitForPeriod = 10;
+        /** Period the quota applies to. */
+        private Duration limitRefreshPeriod = Duration.ofSeconds(1);
+        /** Number of calls allowed back to back after an idle period. */
+        private int burst = 10;
+        /** How long a lookup waits for its turn before falling back as if Binlist were unavailable. */
+        private Duration maxWait = Duration.ofSeconds(1);
+        /** Pause after a 429 answer that has no {@code Retry-After} header. */
+        private Duration defaultBackoff = Duration.ofSeconds(1);
+        /** Lowest fraction of the configured rate that repeated 429 answers can bring the rate down to. */
+        private double minRateFraction = 0.1;
+    }
+
+    @Data
+    public static class Hedging {
+        /**
+         * Whether a second Binlist call is sent when the first one is slow to answer; the first answer wins.
+         * Blocking lookups then also use the non-blocking client, whose bulkhead fails fast instead of waiting
+         * {@code binlist.api.max-wait}, so it is off by default.
+         */
+        private boolean enabled = false;
+        /** Latency percentile of recent Binlist calls after which the second call is sent. */
+        private double delayPercentile = 0.95;
+        /** Lower bound of the hedge delay, also used until enough calls have been observed. */
+        private Duration minDelay = Duration.ofMillis(50);
+        /** Hedged calls earned by each first call: 0.05 adds at most 5% to the Binlist load. */
+        private double budgetRatio = 0.05;
+        /** Hedged calls that can be saved up while Binlist is fast, to absorb a burst of slow answers. */
+        private int maxBudget = 10;
+    }
+}
@@ -0,0 +1,29 @@
+package com.etraveli.cardcostapi.config;
+
+import com.etraveli.cardcostapi.entity.BinCountry;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import com.etraveli.cardcostapi.exception.GlobalExceptionHandler;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Resources and reflection the native image needs beyond what Spring AOT infers from the bean definitions:
+ * the Flyway migrations, which live in per-database folders that Flyway's own hints do not cover, the JPA entities
+ * Hibernate instantiates and the exception handler methods invoked by Spring MVC.
+ */
+public class ClearingCostApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources()
+                .registerPattern("db/migration/h2/*.sql")
+                .registerPattern("db/migration/mysql/*.sql");
+        for (Class<?> entity : new Class<?>[]{ClearingCost.class, ClearingCostChange.class, BinCountry.class}) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(GlobalExceptionHandler.class, MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+}
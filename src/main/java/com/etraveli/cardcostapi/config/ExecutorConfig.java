@@ -0,0 +1,84 @@
+package com.etraveli.cardcostapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used by the pricing endpoints.
+ * With {@code spring.threads.virtual.enabled=true} (Java 21, {@code -Pjava21}) they run every task on its own
+ * virtual thread, so blocking Binlist and JPA calls do not pin platform threads; outbound concurrency is then
+ * bounded by the Binlist semaphore ({@code binlist.api.max-concurrent-calls}) instead of by pool sizes.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final boolean virtualThreads;
+
+    public ExecutorConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Executor used to resolve distinct BINs concurrently when pricing many cards at once.
+     */
+    @Bean
+    public AsyncTaskExecutor binLookupExecutor(BinlistProperties properties) {
+        if (virtualThreads) {
+            return virtualThreadExecutor("bin-lookup-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        BinlistProperties.Executor config = properties.getExecutor();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getPoolSize());
+        executor.setMaxPoolSize(config.getPoolSize());
+        executor.setQueueCapacity(config.getQueueCapacity());
+        executor.setThreadNamePrefix("bin-lookup-");
+        return executor;
+    }
+
+    /**
+     * Executor reading the {@code bin_country} table for non-blocking BIN lookups. It is kept apart from
+     * {@link #binLookupExecutor}, whose tasks wait for those lookups: sharing it could leave every worker waiting
+     * for a read queued behind them.
+     */
+    @Bean
+    public AsyncTaskExecutor binStoreExecutor(BinlistProperties properties) {
+        if (virtualThreads) {
+            return virtualThreadExecutor("bin-store-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        BinlistProperties.Store config = properties.getStore();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getReadPoolSize());
+        executor.setMaxPoolSize(config.getReadPoolSize());
+        executor.setQueueCapacity(config.getReadQueueCapacity());
+        executor.setThreadNamePrefix("bin-store-");
+        return executor;
+    }
+
+    /**
+     * Executor running streaming responses; its size caps the number of concurrent streams.
+     */
+    @Bean
+    public AsyncTaskExecutor mvcAsyncExecutor(PricingProperties properties) {
+        int maxConcurrentStreams = properties.getStream().getMaxConcurrentStreams();
+        if (virtualThreads) {
+            return virtualThreadExecutor("pricing-stream-", maxConcurrentStreams);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentStreams);
+        executor.setMaxPoolSize(maxConcurrentStreams);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("pricing-stream-");
+        return executor;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
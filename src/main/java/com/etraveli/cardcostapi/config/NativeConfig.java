@@ -0,0 +1,17 @@
+package com.etraveli.cardcostapi.config;
+
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Hints for the GraalVM native image ({@code mvn -Pnative native:compile}).
+ * Binlist answers are read into {@link BinlistDto} by the REST clients rather than by a controller, so their
+ * JSON binding is not detected by Spring AOT and is registered here.
+ */
+@Configuration
+@ImportRuntimeHints(ClearingCostApiRuntimeHints.class)
+@RegisterReflectionForBinding({BinlistDto.class, BinlistDto.Country.class, BinlistDto.BinlistResponseWithCost.class})
+public class NativeConfig {
+}
@@ -0,0 +1,95 @@
+package com.etraveli.cardcostapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the card pricing endpoints, bound from the {@code pricing.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "pricing")
+public class PricingProperties {
+
+    private Stream stream = new Stream();
+    private Degraded degraded = new Degraded();
+    private WarmUp warmUp = new WarmUp();
+    private Snapshot snapshot = new Snapshot();
+    private Deadline deadline = new Deadline();
+
+    @Data
+    public static class Stream {
+        /** Maximum number of cards being priced at once per stream; bounds memory and applies backpressure. */
+        private int window = 256;
+        /** Maximum number of streams processed concurrently. */
+        private int maxConcurrentStreams = 8;
+        /** How long a single stream may run before it is aborted. */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Degraded {
+        /** How cards are priced while Binlist is unavailable (circuit open, saturated or failing). */
+        private DegradedPolicy policy = DegradedPolicy.STALE_CACHE;
+    }
+
+    @Data
+    public static class WarmUp {
+        /** Whether caches are preloaded at startup, before the readiness probe reports the pod as ready. */
+        private boolean enabled = true;
+        /**
+         * Optional file of hot BINs, one 8-digit BIN per line, most used first. They are read from the
+         * {@code bin_country} table at startup, and the ones missing from it are resolved by Binlist as far as its
+         * rate limit allows within the timeout. Without it, or if it cannot be read, the most recently resolved
+         * BINs are loaded from the table.
+         */
+        private String binsLocation;
+        /** Maximum number of BINs preloaded. */
+        private int topBins = 1_000;
+        /** Time allowed for the warm-up; whatever is not loaded by then is left to the first requests. */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Snapshot {
+        /** How often the {@code clearing_cost_change} log is polled for changes made by other replicas. */
+        private Duration pollInterval = Duration.ofSeconds(1);
+        /**
+         * Maximum age of the in-memory clearing costs. Past it, the readiness probe reports the pod
+         * out of service until a poll succeeds again.
+         */
+        private Duration maxStaleness = Duration.ofSeconds(10);
+        /**
+         * Changes up to this old are read again on every poll, so that a transaction committing after
+         * a newer change was already polled is not missed. Must exceed the longest write transaction.
+         */
+        private Duration commitGrace = Duration.ofSeconds(5);
+        /**
+         * How long changes are kept in the log. A replica that has not synced for longer reloads
+         * the whole table instead.
+         */
+        private Duration changeRetention = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Deadline {
+        /**
+         * Request header in which callers send how long, in milliseconds, they are willing to wait for an answer.
+         * BIN lookups stop waiting on Binlist once it has passed and the card is priced as if Binlist were
+         * unavailable.
+         */
+        private String header = "X-Request-Timeout";
+        /** Deadline of requests without the header; empty for none. */
+        private Duration defaultTimeout;
+    }
+
+    public enum DegradedPolicy {
+        /** Serve the last known country of the BIN, or the OTHER cost if there is none. */
+        STALE_CACHE,
+        /** Price every card with the OTHER cost. */
+        OTHER_COST,
+        /** Fail the request with 503. */
+        FAIL
+    }
+}
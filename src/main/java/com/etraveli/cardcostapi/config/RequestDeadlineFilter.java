@@ -0,0 +1,56 @@
+package com.etraveli.cardcostapi.config;
+
+import com.etraveli.cardcostapi.service.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds the deadline of each request to the thread serving it, from the {@code pricing.deadline.header} header
+ * or {@code pricing.deadline.default-timeout}. Invalid header values are ignored.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final PricingProperties pricingProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration timeout = timeoutOf(request);
+        if (timeout == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Deadline.set(Deadline.after(timeout));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    private Duration timeoutOf(HttpServletRequest request) {
+        PricingProperties.Deadline config = pricingProperties.getDeadline();
+        String header = request.getHeader(config.getHeader());
+        if (header != null) {
+            try {
+                long millis = Long.parseLong(header.trim());
+                if (millis >= 0) {
+                    return Duration.ofMillis(millis);
+                }
+            } catch (NumberFormatException e) {
+                // Fall back to the default deadline
+            }
+        }
+        return config.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,27 @@
+package com.etraveli.cardcostapi.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * Circuit breaker around Binlist calls. While open, lookups fail fast instead of waiting for timeouts.
+     */
+    @Bean
+    public CircuitBreaker binlistCircuitBreaker(BinlistProperties properties) {
+        BinlistProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        return CircuitBreaker.of("binlist", CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slowCallDurationThreshold(config.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(config.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+                .build());
+    }
+}
@@ -1,10 +1,27 @@
 package com.etraveli.cardcostapi.config;
 
 
+import com.etraveli.cardcostapi.service.Deadline;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class RestTemplateConfig {
 
@@ -12,4 +29,91 @@ public class RestTemplateConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
-}
\ No newline at end of file
+
+    /**
+     * Connection pool dedicated to Binlist, so lookups reuse kept-alive connections
+     * instead of paying a TCP and TLS handshake each time.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager binlistConnectionManager(BinlistProperties properties) {
+        BinlistProperties.Api api = properties.getApi();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(api.getPool().getMaxConnections())
+                // Binlist is a single route, so it may use the whole pool
+                .setMaxConnPerRoute(api.getPool().getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(api.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(api.getReadTimeout().toMillis()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * {@link RestTemplate} used for Binlist lookups, backed by the pooled connection manager
+     * and the {@code binlist.api.*} timeouts. Lookups made for a request with a {@link Deadline} wait for a
+     * pooled connection and for the answer no longer than the time left until it.
+     */
+    @Bean
+    public RestTemplate binlistRestTemplate(PoolingHttpClientConnectionManager binlistConnectionManager,
+                                            BinlistProperties properties) {
+        BinlistProperties.Api api = properties.getApi();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(api.getMaxWait().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(api.getReadTimeout().toMillis()))
+                // Used when Binlist does not send a Keep-Alive header
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(api.getPool().getKeepAlive().toMillis()))
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(binlistConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(TimeValue.ofMilliseconds(api.getPool().getIdleTimeout().toMillis()))
+                .build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> deadlineContext(requestConfig, Deadline.current()));
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Shortens the timeouts of a Binlist call so that it does not run past the deadline of the request it is made
+     * for. Returns {@code null}, leaving the defaults, when there is no deadline or it is further away than them.
+     */
+    static HttpContext deadlineContext(RequestConfig defaults, Deadline deadline) {
+        if (!deadline.isBounded()) {
+            return null;
+        }
+        // A zero timeout would mean no timeout at all
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos()));
+        if (remainingMillis >= defaults.getResponseTimeout().toMilliseconds()
+                && remainingMillis >= defaults.getConnectionRequestTimeout().toMilliseconds()) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaults)
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                        Math.min(remainingMillis, defaults.getConnectionRequestTimeout().toMilliseconds())))
+                .setResponseTimeout(Timeout.ofMilliseconds(
+                        Math.min(remainingMillis, defaults.getResponseTimeout().toMilliseconds())))
+                .build());
+        return context;
+    }
+
+    /**
+     * Non-blocking JDK client used for Binlist lookups of the asynchronous pricing API.
+     * Request timeouts ({@code binlist.api.read-timeout}) are set per request.
+     */
+    @Bean
+    public HttpClient binlistHttpClient(BinlistProperties properties) {
+        return HttpClient.newBuilder()
+                .connectTimeout(properties.getApi().getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Publishes leased, available, pending and maximum connection gauges of the Binlist pool.
+     */
+    @Bean
+    public MeterBinder binlistConnectionPoolMetrics(PoolingHttpClientConnectionManager binlistConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(binlistConnectionManager, "binlist");
+    }
+}
@@ -1,9 +1,18 @@
 package com.etraveli.cardcostapi.controller;
 
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.etraveli.cardcostapi.dto.BatchCostRequest;
 import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.dto.ClearingCostImportResult;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
 import com.etraveli.cardcostapi.entity.ClearingCost;
 import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import com.etraveli.cardcostapi.service.ClearingCostCsv;
+import com.etraveli.cardcostapi.service.ClearingCostStreamService;
+import com.etraveli.cardcostapi.service.IClearingCostAsyncService;
 import com.etraveli.cardcostapi.service.IClearingCostService;
+import com.etraveli.cardcostapi.service.PricingResponseCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,14 +20,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/clearing-cost")
@@ -27,10 +45,17 @@ import java.util.List;
 public class ClearingCostController {
 
     private final IClearingCostService clearingCostService;
+    private final ClearingCostStreamService clearingCostStreamService;
+    private final IClearingCostAsyncService clearingCostAsyncService;
+    private final PricingResponseCache pricingResponseCache;
+    private final PricingProperties pricingProperties;
+    @Qualifier("mvcAsyncExecutor")
+    private final AsyncTaskExecutor streamExecutor;
 
     @PostMapping("/create-clearing-cost")
     @Operation(summary = "Create a new clearing cost",
-            description = "Creates a new clearing cost entry for a specified country and cost.")
+            description = "Creates a new clearing cost entry for a specified country and cost. " +
+                    "If the country already has one, its cost is updated instead.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Clearing cost successfully created",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ClearingCost.class))),
@@ -43,6 +68,45 @@ public class ClearingCostController {
         return new ResponseEntity<>(clearingCostService.saveClearingCost(clearingCost), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import-clearing-costs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Import a list of clearing costs",
+            description = "Creates or updates the cost of every country in the list in a single transaction. " +
+                    "With replace=true the list is taken as the full price list and countries missing from it " +
+                    "are deleted. The new prices are served all at once after the import commits.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing costs imported",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ClearingCostImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Empty list, more than " +
+                    IClearingCostService.MAX_IMPORT_SIZE + " countries, repeated country or invalid cost; " +
+                    "nothing is imported", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<ClearingCostImportResult> importClearingCosts(
+            @Parameter(description = "Clearing costs to import, at most one per country", required = true)
+            @RequestBody List<ClearingCost> clearingCosts,
+            @Parameter(description = "Whether countries missing from the list are deleted")
+            @RequestParam(defaultValue = "false") boolean replace) {
+        return ResponseEntity.ok(clearingCostService.importClearingCosts(clearingCosts, replace));
+    }
+
+    @PostMapping(value = "/import-clearing-costs", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Import a CSV list of clearing costs",
+            description = "Same as the JSON import, for CSV lines of the form \"country,cost\" (e.g. \"US,5.00\") " +
+                    "with an optional \"country_code,cost\" header.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing costs imported",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ClearingCostImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed line or invalid list; nothing is imported",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<ClearingCostImportResult> importClearingCostsCsv(
+            Reader csv,
+            @Parameter(description = "Whether countries missing from the list are deleted")
+            @RequestParam(defaultValue = "false") boolean replace) throws IOException {
+        return ResponseEntity.ok(clearingCostService.importClearingCosts(ClearingCostCsv.parse(csv), replace));
+    }
+
     @GetMapping("/get-all-clearing-costs")
     @Operation(summary = "Retrieve all clearing costs",
             description = "Returns a list of all clearing costs available in the system.")
@@ -122,18 +186,79 @@ public class ClearingCostController {
             @ApiResponse(responseCode = "400", description = "Invalid card number or error obtaining information",
                     content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<BinlistDto.BinlistResponseWithCost> calculateClearingCost(
+    public ResponseEntity<byte[]> calculateClearingCost(
             @Parameter(description = "The payment card number (PAN). " +
                     "It should have between 8 and 19 digits.",
                     example = "45717360", required = true) @RequestParam String cardNumber) {
+        return costResponse(clearingCostService.resolveClearingCost(cardNumber));
+    }
 
-        if (!clearingCostService.isPanValid(cardNumber)) {
-            throw new IllegalArgumentException("Invalid card number. Please check the format and length.");
-        }
-        BinlistDto binlistDto = clearingCostService.getCountryCodeFromCardNumber(cardNumber);
-        BigDecimal cost = clearingCostService.calculateClearingCost(cardNumber);
-        return ResponseEntity.ok(
-                new BinlistDto.BinlistResponseWithCost(binlistDto.getCountry().getAlpha2(), cost)
-        );
+    @GetMapping("/payment-cards-cost/async")
+    @Operation(summary = "Calculate the clearing cost of a payment card without blocking a request thread",
+            description = "Same as /payment-cards-cost, but the request thread is released while the issuing " +
+                    "country is resolved and the response is written once the cost is known.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing cost calculated successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BinlistDto.BinlistResponseWithCost.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid card number or error obtaining information",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public CompletableFuture<ResponseEntity<byte[]>> calculateClearingCostAsync(
+            @Parameter(description = "The payment card number (PAN). " +
+                    "It should have between 8 and 19 digits.",
+                    example = "45717360", required = true) @RequestParam String cardNumber) {
+        return clearingCostAsyncService.resolveClearingCostAsync(cardNumber)
+                .thenApply(this::costResponse);
+    }
+
+    @PostMapping("/payment-cards-cost/batch")
+    @Operation(summary = "Calculate the clearing cost of many payment cards",
+            description = "Returns the clearing cost of each card in the request, in request order. Cards sharing " +
+                    "a BIN are resolved once. Cards that cannot be priced are reported individually with an error.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; each item holds a cost or an error",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchCostItem.class))),
+            @ApiResponse(responseCode = "400", description = "Empty batch or more than " + BatchCostRequest.MAX_CARDS
+                    + " cards", content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<BatchCostItem>> calculateClearingCosts(
+            @Parameter(description = "Card numbers (PANs) to price", required = true)
+            @Valid @RequestBody BatchCostRequest request) {
+        return ResponseEntity.ok(clearingCostService.calculateClearingCosts(request.getCardNumbers()));
+    }
+
+    @PostMapping(value = "/payment-cards-cost/stream",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Calculate the clearing cost of a stream of payment cards",
+            description = "Reads one card per line (a bare PAN or {\"cardNumber\": \"...\"}) and writes one NDJSON " +
+                    "result per card, in input order, while the request is still being read. Suited to files " +
+                    "with millions of cards.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of results; each line holds a cost or an error",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = BatchCostItem.class)))
+    })
+    public WebAsyncTask<Void> streamClearingCosts(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        InputStream cards = request.getInputStream();
+        // Streams run on their own bounded executor with a timeout suited to large files; other asynchronous
+        // endpoints keep the defaults
+        return new WebAsyncTask<>(pricingProperties.getStream().getTimeout().toMillis(), streamExecutor, () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            clearingCostStreamService.priceStream(cards, response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Writes the cost of a card as its pre-serialized {@link BinlistDto.BinlistResponseWithCost}.
+     */
+    private ResponseEntity<byte[]> costResponse(ClearingCostResolution resolution) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(pricingResponseCache.body(resolution));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.etraveli.cardcostapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Clearing cost of one card of a batch, or the reason it could not be priced.")
+public class BatchCostItem {
+    @Schema(description = "Position of the card in the request", example = "0")
+    int index;
+    @Schema(description = "ISO country code of the card issuer", example = "US")
+    String country;
+    @Schema(description = "Clearing cost in dollars", example = "5.00")
+    BigDecimal cost;
+    @Schema(description = "Why the card could not be priced", example = "Invalid card number.")
+    String error;
+    @Schema(description = "Present and true when the card was priced in degraded mode", example = "true")
+    Boolean degraded;
+
+    public static BatchCostItem ofCost(int index, String country, BigDecimal cost) {
+        return new BatchCostItem(index, country, cost, null, null);
+    }
+
+    public static BatchCostItem ofResolution(int index, ClearingCostResolution resolution) {
+        return new BatchCostItem(index, resolution.getCountry(), resolution.getCost(), null,
+                resolution.isDegraded() ? Boolean.TRUE : null);
+    }
+
+    public static BatchCostItem ofError(int index, String error) {
+        return new BatchCostItem(index, null, null, error, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.etraveli.cardcostapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to calculate the clearing cost of several payment cards at once.")
+public class BatchCostRequest {
+    public static final int MAX_CARDS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_CARDS)
+    @Schema(description = "Payment card numbers (PANs) to price", example = "[\"45717360\", \"4111111111111111\"]")
+    private List<String> cardNumbers;
+}
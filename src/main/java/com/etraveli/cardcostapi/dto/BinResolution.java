@@ -0,0 +1,30 @@
+package com.etraveli.cardcostapi.dto;
+
+import lombok.Value;
+
+/**
+ * Issuing country resolved for a card BIN, together with where the answer came from.
+ */
+@Value
+public class BinResolution {
+    /** ISO alpha-2 code of the issuing country. */
+    String country;
+    Source source;
+
+    public enum Source {
+        /** Answered from the local BIN range table. */
+        LOCAL_TABLE,
+        /** Answered from the in-memory BIN cache. */
+        CACHE,
+        /** Answered from the persistent {@code bin_country} table shared by all replicas. */
+        STORE,
+        /** Answered by a call to Binlist. */
+        REMOTE,
+        /** Answered from an expired cache entry because Binlist is unavailable. */
+        STALE_CACHE
+    }
+
+    public boolean isCached() {
+        return source != Source.REMOTE;
+    }
+}
@@ -1,5 +1,6 @@
 package com.etraveli.cardcostapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,6 +10,14 @@ import java.math.BigDecimal;
 public class BinlistDto {
     private Country country;
 
+    public static BinlistDto ofCountry(String alpha2) {
+        Country country = new Country();
+        country.setAlpha2(alpha2);
+        BinlistDto binlistDto = new BinlistDto();
+        binlistDto.setCountry(country);
+        return binlistDto;
+    }
+
     @Data
     public static class Country {
         private String alpha2;
@@ -22,5 +31,9 @@ public class BinlistDto {
         private String country;
         @Schema(description = "Clearing cost in dollars", example = "5.00")
         private BigDecimal cost;
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+        @Schema(description = "Present and true when Binlist was unavailable and the cost comes from a stale " +
+                "country or the OTHER cost", example = "true")
+        private boolean degraded;
     }
 }
@@ -0,0 +1,17 @@
+package com.etraveli.cardcostapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+@Value
+@Schema(description = "Outcome of a clearing cost import.")
+public class ClearingCostImportResult {
+    @Schema(description = "Countries added", example = "3")
+    int created;
+    @Schema(description = "Countries whose cost changed", example = "12")
+    int updated;
+    @Schema(description = "Countries imported with the cost they already had", example = "235")
+    int unchanged;
+    @Schema(description = "Countries removed because they were missing from a full price list", example = "0")
+    int deleted;
+}
@@ -0,0 +1,45 @@
+package com.etraveli.cardcostapi.dto;
+
+import com.etraveli.cardcostapi.service.CountryCostTable;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of resolving the clearing cost of a single card.
+ * Produced once per request by the pricing pipeline (validation, BIN resolution and cost lookup),
+ * so callers never need to repeat any of those steps.
+ */
+@Value
+public class ClearingCostResolution {
+    /** ISO alpha-2 code of the issuing country, or {@code null} if it could not be resolved in degraded mode. */
+    String country;
+    /** Clearing cost applied to the card, in minor units (see {@link CountryCostTable}). */
+    long costMinorUnits;
+    /** Where the cost came from. */
+    CostSource source;
+    /** Whether the issuing country was resolved without calling Binlist. */
+    boolean cached;
+    /** Whether the card was priced in degraded mode because Binlist was unavailable. */
+    boolean degraded;
+
+    public enum CostSource {
+        /** A clearing cost configured for the issuing country. */
+        COUNTRY,
+        /** The default cost for countries without a specific entry. */
+        DEFAULT,
+        /** The OTHER cost, applied because the issuing country could not be resolved in degraded mode. */
+        FALLBACK
+    }
+
+    /**
+     * Clearing cost applied to the card.
+     */
+    public BigDecimal getCost() {
+        return CountryCostTable.toBigDecimal(costMinorUnits);
+    }
+
+    public BinlistDto.BinlistResponseWithCost toResponse() {
+        return new BinlistDto.BinlistResponseWithCost(country, getCost(), degraded);
+    }
+}
@@ -0,0 +1,48 @@
+package com.etraveli.cardcostapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "bin_country")
+@Data
+@NoArgsConstructor
+public class BinCountry implements Persistable<String> {
+    @Id
+    @Column(name = "bin", length = 8)
+    private String bin;
+
+    @Column(name = "country_code", nullable = false)
+    private String countryCode;
+
+    @Column(name = "resolved_at", nullable = false)
+    private Instant resolvedAt;
+
+    // Set by the writer that knows whether the row exists, so that saving it inserts or updates without a select
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRow;
+
+    public BinCountry(String bin, String countryCode, Instant resolvedAt) {
+        this.bin = bin;
+        this.countryCode = countryCode;
+        this.resolvedAt = resolvedAt;
+    }
+
+    @Override
+    public String getId() {
+        return bin;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+}
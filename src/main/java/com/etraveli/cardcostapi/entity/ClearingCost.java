@@ -8,13 +8,15 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "clearing_cost")
+@Table(name = "clearing_cost", uniqueConstraints =
+        @UniqueConstraint(name = "uk_clearing_cost_country_code", columnNames = "country_code"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ClearingCost {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clearing_cost_seq")
+    @SequenceGenerator(name = "clearing_cost_seq", sequenceName = "clearing_cost_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "country_code", nullable = false)
@@ -0,0 +1,32 @@
+package com.etraveli.cardcostapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "clearing_cost_change")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clearing_cost_change_seq")
+    @SequenceGenerator(name = "clearing_cost_change_seq", sequenceName = "clearing_cost_change_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "country_code", nullable = false)
+    private String countryCode;
+
+    /** Set by the database clock on insert, so that all replicas compare the same clock. */
+    @Column(name = "changed_at", nullable = false, insertable = false, updatable = false)
+    private Instant changedAt;
+
+    public ClearingCostChange(String countryCode) {
+        this.countryCode = countryCode;
+    }
+}
@@ -0,0 +1,19 @@
+package com.etraveli.cardcostapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import java.io.Serial;
+
+// Thrown when Binlist cannot be called or does not answer in time.
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class BinlistUnavailableException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public BinlistUnavailableException(String message) {
+        super(message);
+    }
+    public BinlistUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
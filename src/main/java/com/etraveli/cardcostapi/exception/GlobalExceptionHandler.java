@@ -1,7 +1,9 @@
 package com.etraveli.cardcostapi.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,6 +25,11 @@ import java.util.Map;
  */
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    /** Body of every invalid card number response, which is the same for all of them. */
+    private static final byte[] INVALID_CARD_NUMBER_BODY = ("{\"status\":400,\"error\":\"Bad Request\","
+            + "\"message\":\"" + InvalidCardNumberException.MESSAGE + "\"}").getBytes(StandardCharsets.UTF_8);
+
     /**
      * This exception is thrown when the requested resource does not exist in the database.
      * Captures the exception and returns a structured response with HTTP status 404.
@@ -41,6 +49,79 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This exception is thrown when Binlist cannot be reached or does not answer in time.
+     * Captures the exception and returns a structured response with HTTP status 503.
+     * @param ex The exception that was thrown.
+     * @param request Details of the current request.
+     * @return An HTTP response with status code {@code 503 SERVICE UNAVAILABLE} and a body with error details.
+     */
+    @ExceptionHandler(BinlistUnavailableException.class)
+    public ResponseEntity<Object> handleBinlistUnavailableException(BinlistUnavailableException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false));
+
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * This exception is thrown when the card number of a pricing request is not valid.
+     * Invalid card numbers are frequent and always answered alike, so the response is a precomputed body
+     * with HTTP status 400, without the timestamp and path of the other error responses.
+     * @param ex The exception that was thrown.
+     * @return An HTTP response with status code {@code 400 BAD REQUEST} and a body with error details.
+     */
+    @ExceptionHandler(InvalidCardNumberException.class)
+    public ResponseEntity<byte[]> handleInvalidCardNumberException(InvalidCardNumberException ex) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(INVALID_CARD_NUMBER_BODY);
+    }
+
+    /**
+     * This exception is thrown when a request holds invalid data, such as a malformed clearing cost import.
+     * Captures the exception and returns a structured response with HTTP status 400.
+     * @param ex The exception that was thrown.
+     * @param request Details of the current request.
+     * @return An HTTP response with status code {@code 400 BAD REQUEST} and a body with error details.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This exception is thrown when a write breaks a database constraint, such as two concurrent requests
+     * creating the clearing cost of the same country.
+     * Captures the exception and returns a structured response with HTTP status 409.
+     * @param ex The exception that was thrown.
+     * @param request Details of the current request.
+     * @return An HTTP response with status code {@code 409 CONFLICT} and a body with error details.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolationException(DataIntegrityViolationException ex,
+                                                                         WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "The change conflicts with existing data, e.g. another cost for the same country.");
+        body.put("path", request.getDescription(false));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles exceptions related to invalid method arguments, for example,
      * validation errors in {@code @RequestBody} using {@code @Valid}.
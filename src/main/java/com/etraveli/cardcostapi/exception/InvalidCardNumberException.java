@@ -0,0 +1,19 @@
+package com.etraveli.cardcostapi.exception;
+
+import java.io.Serial;
+
+// Thrown when a card number (PAN) fails validation. Invalid PANs are an expected input,
+// so the exception carries no stack trace and costs no more than the allocation.
+
+public class InvalidCardNumberException extends IllegalArgumentException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public static final String MESSAGE = "Invalid card number. Please check the format and length.";
+    public InvalidCardNumberException() {
+        super(MESSAGE);
+    }
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,31 @@
+package com.etraveli.cardcostapi.repository;
+
+import com.etraveli.cardcostapi.entity.BinCountry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+public interface BinCountryRepository extends JpaRepository<BinCountry, String> {
+    List<BinCountry> findByResolvedAtAfterOrderByResolvedAtDesc(Instant resolvedAfter, Pageable pageable);
+
+    /**
+     * Inserts or updates rows with batched statements. The rows that already exist are read with a single query,
+     * after which new rows are inserted and existing ones updated without a select per row.
+     * @param rows Rows with distinct BINs.
+     */
+    @Transactional
+    default void saveBatch(List<BinCountry> rows) {
+        Set<String> existing = findAllById(rows.stream().map(BinCountry::getBin).toList()).stream()
+                .map(BinCountry::getBin)
+                .collect(Collectors.toSet());
+        rows.forEach(row -> row.setNewRow(!existing.contains(row.getBin())));
+        saveAll(rows);
+    }
+}
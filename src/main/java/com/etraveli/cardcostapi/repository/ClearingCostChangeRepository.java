@@ -0,0 +1,25 @@
+package com.etraveli.cardcostapi.repository;
+
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ClearingCostChangeRepository extends JpaRepository<ClearingCostChange, Long> {
+    List<ClearingCostChange> findByChangedAtAfterOrderByChangedAtAsc(Instant changedAfter);
+
+    @Query("select max(c.changedAt) from ClearingCostChange c")
+    Instant findLastChangedAt();
+
+    @Modifying
+    @Transactional
+    @Query("delete from ClearingCostChange c where c.changedAt < :changedBefore")
+    int deleteChangedBefore(@Param("changedBefore") Instant changedBefore);
+}
@@ -4,10 +4,13 @@ import com.etraveli.cardcostapi.entity.ClearingCost;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClearingCostRepository extends JpaRepository<ClearingCost, Long> {
     Optional<ClearingCost> findByCountryCode(String countryCode);
+    List<ClearingCost> findByCountryCodeIn(Collection<String> countryCodes);
 }
 
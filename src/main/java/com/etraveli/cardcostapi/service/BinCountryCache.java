@@ -0,0 +1,129 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory cache of issuing countries keyed by the 8-digit BIN prefix instead of the full PAN.
+ * BINs unknown to Binlist are cached as well (negative caching) with their own, shorter TTL.
+ * Eviction is size-bounded and uses Caffeine's W-TinyLFU policy.
+ * Resolved countries are also kept for a longer stale TTL, to be served only while Binlist is unavailable.
+ * Hit, miss and eviction metrics are published as {@code cache.*} meters tagged {@code cache=bin_country}.
+ */
+@Component
+public class BinCountryCache implements MeterBinder {
+
+    /** Marker stored for BINs that Binlist does not know about. */
+    static final String UNKNOWN = "";
+
+    public static final int LONG_BIN_LENGTH = 8;
+
+    private final Cache<String, String> cache;
+    private final Cache<String, String> stale;
+
+    public BinCountryCache(BinlistProperties properties) {
+        BinlistProperties.Cache config = properties.getCache();
+        long ttlNanos = config.getTtl().toNanos();
+        long negativeTtlNanos = config.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(new Expiry<String, String>() {
+                    @Override
+                    public long expireAfterCreate(String key, String value, long currentTime) {
+                        return isUnknown(value) ? negativeTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, String value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, String value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.stale = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getStaleTtl())
+                .build();
+    }
+
+    /**
+     * Looks up the issuing country of a card.
+     * @param cardNumber A validated card number (at least 8 digits).
+     * @return The country code, {@link #UNKNOWN} for a cached negative answer, or {@code null} on a miss.
+     */
+    public String getIfPresent(String cardNumber) {
+        return cache.getIfPresent(binOf(cardNumber));
+    }
+
+    /**
+     * Looks up the last known issuing country of a card, even if its regular entry has expired.
+     * Meant for degraded mode only.
+     * @param cardNumber A validated card number (at least 8 digits).
+     * @return The last known country code, or {@code null} if there is none.
+     */
+    public String getStale(String cardNumber) {
+        return stale.getIfPresent(binOf(cardNumber));
+    }
+
+    /**
+     * Caches the issuing country of the 8-digit BIN of a card.
+     */
+    public void put(String cardNumber, String country) {
+        String bin = binOf(cardNumber);
+        cache.put(bin, country);
+        stale.put(bin, country);
+    }
+
+    /**
+     * Caches the issuing country of an explicit 8-digit BIN.
+     */
+    public void putBin(String bin, String country) {
+        if (bin.length() != LONG_BIN_LENGTH) {
+            throw new IllegalArgumentException("BIN must have 8 digits");
+        }
+        cache.put(bin, country);
+        stale.put(bin, country);
+    }
+
+    /**
+     * Remembers that Binlist has no issuing country for the 8-digit BIN of a card.
+     */
+    public void putUnknown(String cardNumber) {
+        cache.put(binOf(cardNumber), UNKNOWN);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "bin_country");
+    }
+
+    /**
+     * Hit, miss and eviction counters of the cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public static boolean isUnknown(String country) {
+        return UNKNOWN.equals(country);
+    }
+
+    /**
+     * Returns the 8-digit BIN prefix of a card number, which is what Binlist is queried with.
+     */
+    public static String binOf(String cardNumber) {
+        return cardNumber.substring(0, LONG_BIN_LENGTH);
+    }
+}
@@ -0,0 +1,170 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.entity.BinCountry;
+import com.etraveli.cardcostapi.repository.BinCountryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent (L2) BIN cache backed by the {@code bin_country} table, shared by all replicas and kept across restarts.
+ * Reads are synchronous, but only happen on a miss of the in-memory cache. Writes are buffered and flushed
+ * in batches by a scheduled task ({@code binlist.store.flush-interval}), so they never add latency to a request.
+ * Database failures are logged and treated as misses: the table is an optimization, Binlist stays the source of truth.
+ */
+@Slf4j
+@Component
+public class BinCountryStore {
+
+    private final BinCountryRepository binCountryRepository;
+    private final BinlistProperties.Store config;
+    private final Map<String, BinCountry> pending = new ConcurrentHashMap<>();
+
+    public BinCountryStore(BinCountryRepository binCountryRepository, BinlistProperties properties) {
+        this.binCountryRepository = binCountryRepository;
+        this.config = properties.getStore();
+    }
+
+    /**
+     * Looks up the country of a BIN resolved within {@code binlist.store.ttl}.
+     * @param bin The 8-digit BIN.
+     * @return The country code, or {@code null} if the BIN is unknown, too old or the table is unavailable.
+     */
+    public String find(String bin) {
+        BinCountry row = load(bin);
+        if (row == null || row.getResolvedAt().isBefore(Instant.now().minus(config.getTtl()))) {
+            return null;
+        }
+        return row.getCountryCode();
+    }
+
+    /**
+     * Looks up the last known country of a BIN, however old. Meant for degraded mode only.
+     * @param bin The 8-digit BIN.
+     * @return The country code, or {@code null} if the BIN was never stored or the table is unavailable.
+     */
+    public String findStale(String bin) {
+        BinCountry row = load(bin);
+        return row != null ? row.getCountryCode() : null;
+    }
+
+    /**
+     * Looks up the countries of several BINs resolved within {@code binlist.store.ttl}, with a single query.
+     * @param bins 8-digit BINs.
+     * @return The country code by BIN of those found; empty if the store is disabled or unavailable.
+     */
+    public Map<String, String> findAll(Collection<String> bins) {
+        if (!config.isEnabled() || bins.isEmpty()) {
+            return Map.of();
+        }
+        Instant oldest = Instant.now().minus(config.getTtl());
+        try {
+            Map<String, String> countries = new HashMap<>();
+            for (BinCountry row : binCountryRepository.findAllById(bins)) {
+                if (!row.getResolvedAt().isBefore(oldest)) {
+                    countries.put(row.getBin(), row.getCountryCode());
+                }
+            }
+            return countries;
+        } catch (DataAccessException e) {
+            log.warn("Could not read the BIN store: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Returns the most recently resolved BINs still within {@code binlist.store.ttl}, to warm up the memory cache.
+     * @param limit Maximum number of rows returned.
+     * @return The rows, newest first; empty if the store is disabled or unavailable.
+     */
+    public List<BinCountry> findRecent(int limit) {
+        if (!config.isEnabled() || limit <= 0) {
+            return List.of();
+        }
+        try {
+            return binCountryRepository.findByResolvedAtAfterOrderByResolvedAtDesc(
+                    Instant.now().minus(config.getTtl()), PageRequest.of(0, limit));
+        } catch (DataAccessException e) {
+            log.warn("Could not read the BIN store: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Queues a resolved BIN to be written with the next flush. A BIN queued twice is written once.
+     * @param bin The 8-digit BIN.
+     * @param country The issuing country returned by Binlist.
+     */
+    public void save(String bin, String country) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (pending.size() >= config.getMaxPending() && !pending.containsKey(bin)) {
+            log.debug("BIN store write buffer full, dropping BIN country row");
+            return;
+        }
+        pending.put(bin, new BinCountry(bin, country, Instant.now()));
+    }
+
+    /**
+     * Writes the queued rows, {@code binlist.store.batch-size} at a time.
+     */
+    @Scheduled(fixedDelayString = "${binlist.store.flush-interval:PT1S}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<BinCountry> batch = new ArrayList<>(Math.min(pending.size(), config.getBatchSize()));
+            Iterator<Map.Entry<String, BinCountry>> rows = pending.entrySet().iterator();
+            while (rows.hasNext() && batch.size() < config.getBatchSize()) {
+                Map.Entry<String, BinCountry> row = rows.next();
+                // A row re-queued meanwhile stays pending and is written with the next batch
+                if (pending.remove(row.getKey(), row.getValue())) {
+                    batch.add(row.getValue());
+                }
+            }
+            try {
+                binCountryRepository.saveBatch(batch);
+            } catch (DataAccessException e) {
+                // The rows will be written again the next time their BINs are resolved
+                log.warn("Could not write {} BIN country rows: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of rows waiting to be written.
+     */
+    public int pendingWrites() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private BinCountry load(String bin) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        try {
+            return binCountryRepository.findById(bin).orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the BIN store: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.dto.BinResolution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of BIN ranges to issuing countries.
+ * Ranges are normalized to 8-digit bounds and stored in sorted primitive arrays, so a lookup is a
+ * binary search on the numeric BIN prefix of the card and does not allocate.
+ */
+public final class BinRangeTable {
+
+    static final int BIN_DIGITS = 8;
+
+    private static final BinRangeTable EMPTY = new BinRangeTable(new long[0], new long[0], new short[0],
+            new BinResolution[0]);
+
+    private final long[] lows;
+    private final long[] highs;
+    private final short[] countryIndexes;
+    private final BinResolution[] resolutions;
+
+    private BinRangeTable(long[] lows, long[] highs, short[] countryIndexes, BinResolution[] resolutions) {
+        this.lows = lows;
+        this.highs = highs;
+        this.countryIndexes = countryIndexes;
+        this.resolutions = resolutions;
+    }
+
+    public static BinRangeTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Loads a table from CSV lines of the form {@code low,high,country}, where {@code low} and {@code high}
+     * are inclusive BIN prefixes of up to 8 digits (e.g. {@code 457173,457173,DK}).
+     * Blank lines and lines starting with {@code #} are ignored. Ranges must not overlap.
+     * @param reader The CSV source.
+     * @return The loaded table.
+     * @throws IOException If the source cannot be read.
+     * @throws IllegalArgumentException If a line is malformed or two ranges overlap.
+     */
+    public static BinRangeTable load(Reader reader) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        List<String> rangeCountries = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Invalid BIN range at line " + lineNumber + ": " + line);
+            }
+            long low = normalize(fields[0].trim(), '0', lineNumber);
+            long high = normalize(fields[1].trim(), '9', lineNumber);
+            if (low > high) {
+                throw new IllegalArgumentException("BIN range start is after its end at line " + lineNumber);
+            }
+            ranges.add(new long[]{low, high, rangeCountries.size()});
+            rangeCountries.add(fields[2].trim());
+        }
+        return build(ranges, rangeCountries);
+    }
+
+    private static BinRangeTable build(List<long[]> ranges, List<String> rangeCountries) {
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        int size = ranges.size();
+        long[] lows = new long[size];
+        long[] highs = new long[size];
+        short[] countryIndexes = new short[size];
+        Map<String, Short> indexByCountry = new HashMap<>();
+        List<BinResolution> resolutions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long[] range = ranges.get(i);
+            if (i > 0 && range[0] <= highs[i - 1]) {
+                throw new IllegalArgumentException("Overlapping BIN ranges starting at " + lows[i - 1]
+                        + " and " + range[0]);
+            }
+            lows[i] = range[0];
+            highs[i] = range[1];
+            String country = rangeCountries.get((int) range[2]);
+            countryIndexes[i] = indexByCountry.computeIfAbsent(country, key -> {
+                resolutions.add(new BinResolution(key, BinResolution.Source.LOCAL_TABLE));
+                return (short) (resolutions.size() - 1);
+            });
+        }
+        return new BinRangeTable(lows, highs, countryIndexes, resolutions.toArray(new BinResolution[0]));
+    }
+
+    private static long normalize(String bin, char padding, int lineNumber) {
+        if (bin.isEmpty() || bin.length() > BIN_DIGITS) {
+            throw new IllegalArgumentException("BIN must have between 1 and 8 digits at line " + lineNumber);
+        }
+        long value = 0;
+        for (int i = 0; i < BIN_DIGITS; i++) {
+            char c = i < bin.length() ? bin.charAt(i) : padding;
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("BIN must contain only digits at line " + lineNumber);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Returns the numeric value of the first 8 digits of a validated card number.
+     */
+    public static long binPrefix(CharSequence cardNumber) {
+        long value = 0;
+        for (int i = 0; i < BIN_DIGITS; i++) {
+            value = value * 10 + (cardNumber.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Finds the range containing an 8-digit BIN.
+     * @param bin The numeric 8-digit BIN prefix of a card.
+     * @return The resolution for the range's country, or {@code null} if no range contains the BIN.
+     */
+    public BinResolution lookup(long bin) {
+        int low = 0;
+        int high = lows.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lows[mid] <= bin) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // high is now the last range starting at or before the BIN
+        if (high >= 0 && bin <= highs[high]) {
+            return resolutions[countryIndexes[high]];
+        }
+        return null;
+    }
+
+    public int size() {
+        return lows.length;
+    }
+
+    @Override
+    public String toString() {
+        return "BinRangeTable{ranges=" + lows.length + ", countries=" + resolutions.length + "}";
+    }
+}
@@ -0,0 +1,16 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.dto.BinResolution;
+
+/**
+ * Resolves the issuing country of a card from its BIN.
+ */
+public interface BinResolver {
+
+    /**
+     * Resolves the issuing country of a card.
+     * @param cardNumber A validated card number (at least 8 digits).
+     * @return The resolved country, or {@code null} if this resolver has no answer for the BIN.
+     */
+    BinResolution resolve(String cardNumber);
+}
@@ -0,0 +1,147 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.exception.BinlistUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking Binlist client used by the asynchronous pricing API.
+ * Calls go through the same circuit breaker and rate limiter as {@link BinlistService}'s blocking calls and are
+ * bounded by their own {@code binlist.api.max-concurrent-calls} permits. Since waiting for a permit would block,
+ * a call fails immediately when none is free; a call held back by the rate limiter is sent later from a timer
+ * instead.
+ */
+@Component
+public class BinlistAsyncClient {
+
+    private final HttpClient httpClient;
+    private final ObjectReader binlistReader;
+    private final BinlistProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final PricingMetrics pricingMetrics;
+    private final BinlistRateLimiter rateLimiter;
+    private final Semaphore callPermits;
+
+    public BinlistAsyncClient(HttpClient binlistHttpClient, ObjectMapper objectMapper, BinlistProperties properties,
+                              CircuitBreaker binlistCircuitBreaker, PricingMetrics pricingMetrics,
+                              BinlistRateLimiter binlistRateLimiter) {
+        this.httpClient = binlistHttpClient;
+        this.binlistReader = objectMapper.readerFor(BinlistDto.class);
+        this.properties = properties;
+        this.circuitBreaker = binlistCircuitBreaker;
+        this.pricingMetrics = pricingMetrics;
+        this.rateLimiter = binlistRateLimiter;
+        this.callPermits = new Semaphore(properties.getApi().getMaxConcurrentCalls());
+    }
+
+    /**
+     * Fetches the issuing country of a BIN without blocking the calling thread.
+     * @param bin The 8-digit BIN.
+     * @param timeout How long the caller waits for the answer, at most {@code binlist.api.read-timeout}
+     * for the call itself.
+     * @return The pending country code, {@code null} if Binlist does not know the BIN. It fails with
+     * {@link BinlistUnavailableException} if the breaker is open, the call is not due within
+     * {@code binlist.rate-limit.max-wait} or the timeout, no permit is free, Binlist answers 429 or the call fails.
+     */
+    public CompletableFuture<String> fetchCountry(String bin, Duration timeout) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            pricingMetrics.binlistError("circuit_open");
+            return CompletableFuture.failedFuture(
+                    new BinlistUnavailableException("Binlist is unavailable (circuit breaker open)."));
+        }
+        long timeoutNanos = timeout.toNanos();
+        long wait = rateLimiter.reserve(Math.min(properties.getRateLimit().getMaxWait().toNanos(), timeoutNanos));
+        if (wait < 0) {
+            circuitBreaker.releasePermission();
+            pricingMetrics.binlistError("throttled");
+            return CompletableFuture.failedFuture(new BinlistUnavailableException("Binlist call budget exhausted."));
+        }
+        Duration requestTimeout = Duration.ofNanos(
+                Math.max(1, Math.min(properties.getApi().getReadTimeout().toNanos(), timeoutNanos - wait)));
+        if (wait == 0) {
+            return send(bin, requestTimeout);
+        }
+        Executor due = CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS);
+        return CompletableFuture.supplyAsync(() -> bin, due).thenCompose(b -> send(b, requestTimeout));
+    }
+
+    /**
+     * Sends a lookup the breaker and the rate limiter already let through.
+     */
+    private CompletableFuture<String> send(String bin, Duration timeout) {
+        if (!callPermits.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            pricingMetrics.binlistError("bulkhead_full");
+            return CompletableFuture.failedFuture(new BinlistUnavailableException("Too many concurrent Binlist lookups."));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getApi().getBaseUrl() + "/" + bin))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    callPermits.release();
+                    long elapsed = System.nanoTime() - start;
+                    if (failure != null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        return fail(elapsed, cause instanceof HttpTimeoutException ? "timeout" : "io", cause);
+                    }
+                    return readCountry(response, elapsed);
+                });
+    }
+
+    private String readCountry(HttpResponse<byte[]> response, long elapsed) {
+        int status = response.statusCode();
+        if (status == 404) {
+            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            rateLimiter.onSuccess();
+            return null;
+        }
+        if (status == 429) {
+            // Binlist is healthy but we are over quota: slow down without counting a failure for the breaker
+            circuitBreaker.releasePermission();
+            rateLimiter.onRateLimited(response.headers().firstValue("Retry-After").orElse(null));
+            pricingMetrics.binlistError("rate_limited");
+            throw new BinlistUnavailableException("Binlist rate limit exceeded.");
+        }
+        if (status != 200) {
+            String type = status >= 500 ? "http_5xx" : "http_4xx";
+            return fail(elapsed, type, new IOException("Binlist answered with HTTP " + status));
+        }
+        try {
+            BinlistDto body = binlistReader.readValue(response.body());
+            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            rateLimiter.onSuccess();
+            return body.getCountry() != null ? body.getCountry().getAlpha2() : null;
+        } catch (IOException e) {
+            return fail(elapsed, "other", e);
+        }
+    }
+
+    private String fail(long elapsed, String type, Throwable cause) {
+        circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, cause);
+        pricingMetrics.binlistError(type);
+        throw new BinlistUnavailableException("Binlist lookup failed.", cause);
+    }
+}
@@ -0,0 +1,101 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedging policy of Binlist lookups: how long to wait for the first call before sending a second one, and whether
+ * the budget allows it.
+ * The delay is the {@code binlist.hedging.delay-percentile} of the latencies of the last {@value #SAMPLES} Binlist
+ * calls, never below {@code min-delay}, so only the slowest calls are hedged. Every first call earns
+ * {@code budget-ratio} of a hedge and every hedge spends one, up to {@code max-budget} saved: whatever the latency,
+ * hedging adds at most that ratio to the Binlist load. The current delay is published as {@code binlist.hedge.delay}.
+ */
+@Component
+public class BinlistHedging implements MeterBinder {
+
+    /** Number of recent latencies the delay is computed over. */
+    static final int SAMPLES = 256;
+
+    /** The delay is recomputed after this many new latencies. */
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final boolean enabled;
+    private final double delayPercentile;
+    private final long minDelayNanos;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    private final long[] latencies = new long[SAMPLES];
+    private int recorded;
+    private volatile long delayNanos;
+    private double budget;
+
+    public BinlistHedging(BinlistProperties properties) {
+        BinlistProperties.Hedging config = properties.getHedging();
+        this.enabled = config.isEnabled();
+        this.delayPercentile = config.getDelayPercentile();
+        this.minDelayNanos = config.getMinDelay().toNanos();
+        this.budgetRatio = config.getBudgetRatio();
+        this.maxBudget = config.getMaxBudget();
+        this.delayNanos = minDelayNanos;
+        this.budget = maxBudget;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How long to wait for the first call of a lookup before hedging it.
+     */
+    public long delayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Records the latency of a Binlist call that got an answer.
+     */
+    public synchronized void recordLatency(long nanos) {
+        latencies[recorded % SAMPLES] = nanos;
+        recorded++;
+        if (recorded % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(recorded, SAMPLES));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(delayPercentile * sorted.length) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+        }
+    }
+
+    /**
+     * Earns the budget of a first call.
+     */
+    public synchronized void onFirstCall() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    /**
+     * Spends the budget of a hedge.
+     * @return Whether the budget allows it.
+     */
+    public synchronized boolean tryHedge() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("binlist.hedge.delay", this, TimeUnit.NANOSECONDS, BinlistHedging::delayNanos)
+                .description("Time a Binlist lookup waits for the first call before sending a second one")
+                .register(registry);
+    }
+}
@@ -0,0 +1,147 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side rate limiter of Binlist calls, shared by {@link BinlistService} and {@link BinlistAsyncClient} so that
+ * the replica as a whole stays within its Binlist quota.
+ * It is a token bucket refilled with {@code binlist.rate-limit.limit-for-period} calls per
+ * {@code limit-refresh-period} and holding up to {@code burst} calls, kept as the time the next call is due
+ * (the generic cell rate algorithm) so that reserving a call is a few arithmetic operations.
+ * <p>
+ * The rate adapts to the quota Binlist actually enforces: a 429 answer halves it, down to {@code min-rate-fraction}
+ * of the configured rate, and holds every call back for the {@code Retry-After} the answer asks for. Each successful
+ * call then gives back a little of the rate, so throughput settles just below the quota instead of alternating
+ * between bursts and lockouts. The current rate is published as {@code binlist.rate.limit}.
+ */
+@Slf4j
+@Component
+public class BinlistRateLimiter implements MeterBinder {
+
+    /** Share of the current rate given back by each successful call. */
+    private static final double RECOVERY_STEP = 0.02;
+
+    private final boolean enabled;
+    private final int burst;
+    private final double configuredIntervalNanos;
+    private final double maxIntervalNanos;
+    private final long defaultBackoffNanos;
+
+    /** Current time between two calls, at least {@link #configuredIntervalNanos}. */
+    private double intervalNanos;
+    /** When the next call would be due if no burst were allowed. */
+    private long dueNanos;
+
+    public BinlistRateLimiter(BinlistProperties properties) {
+        BinlistProperties.RateLimit config = properties.getRateLimit();
+        this.enabled = config.isEnabled();
+        this.burst = Math.max(1, config.getBurst());
+        this.configuredIntervalNanos = (double) config.getLimitRefreshPeriod().toNanos() / config.getLimitForPeriod();
+        this.maxIntervalNanos = configuredIntervalNanos / config.getMinRateFraction();
+        this.defaultBackoffNanos = config.getDefaultBackoff().toNanos();
+        this.intervalNanos = configuredIntervalNanos;
+        this.dueNanos = nanoTime();
+    }
+
+    /**
+     * Reserves the next call slot.
+     * @param maxWaitNanos How long the caller is willing to wait for it.
+     * @return How long the caller must wait before calling, 0 to call right away, or -1 if the slot is further away
+     * than {@code maxWaitNanos}, in which case nothing is reserved.
+     */
+    public synchronized long reserve(long maxWaitNanos) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoTime();
+        long wait = Math.max(0, dueNanos - burstToleranceNanos() - now);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        dueNanos = Math.max(dueNanos, now + wait) + (long) intervalNanos;
+        return wait;
+    }
+
+    /**
+     * Gives back a little of the rate taken away by earlier 429 answers.
+     */
+    public synchronized void onSuccess() {
+        if (intervalNanos > configuredIntervalNanos) {
+            intervalNanos = Math.max(configuredIntervalNanos, intervalNanos / (1 + RECOVERY_STEP));
+        }
+    }
+
+    /**
+     * Halves the rate and holds every call back after Binlist answered 429.
+     * @param retryAfter The {@code Retry-After} header of the answer, or {@code null}.
+     */
+    public synchronized void onRateLimited(String retryAfter) {
+        if (!enabled) {
+            return;
+        }
+        intervalNanos = Math.min(maxIntervalNanos, intervalNanos * 2);
+        long pauseNanos = retryAfterNanos(retryAfter);
+        // No burst right after the pause: calls resume one at a time at the reduced rate
+        dueNanos = Math.max(dueNanos, nanoTime() + pauseNanos + burstToleranceNanos());
+        log.warn("Binlist rate limit hit, pausing calls for {} ms and slowing down to {} calls per second",
+                TimeUnit.NANOSECONDS.toMillis(pauseNanos), String.format("%.2f", rate()));
+    }
+
+    /**
+     * Current number of calls allowed per second.
+     */
+    public synchronized double rate() {
+        return TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("binlist.rate.limit", this, BinlistRateLimiter::rate)
+                .description("Binlist calls allowed per second by the client-side rate limiter")
+                .register(registry);
+    }
+
+    /**
+     * Time source, overridable for tests.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /** How far ahead of its due time a call may go, which is what lets a burst through after an idle period. */
+    private long burstToleranceNanos() {
+        return (long) ((burst - 1) * intervalNanos);
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, either a number of seconds or an HTTP date.
+     * @return The pause, or {@code binlist.rate-limit.default-backoff} if the header is missing or invalid.
+     */
+    private long retryAfterNanos(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return defaultBackoffNanos;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds: an HTTP date
+        }
+        try {
+            ZonedDateTime until = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(until.getZone()), until).toNanos());
+        } catch (DateTimeParseException e) {
+            return defaultBackoffNanos;
+        }
+    }
+}
@@ -1,19 +1,444 @@
 package com.etraveli.cardcostapi.service;
 
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.dto.BinResolution;
 import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.exception.BinlistUnavailableException;
+import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
-public class BinlistService {
+public class BinlistService implements BinResolver {
+
+    /** Outcome of a lookup for a BIN that Binlist does not know. */
+    private static final BinResolution NOT_FOUND =
+            new BinResolution(BinCountryCache.UNKNOWN, BinResolution.Source.REMOTE);
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final BinlistProperties properties;
+    private final BinCountryCache binCountryCache;
+    private final BinCountryStore binCountryStore;
+    private final CircuitBreaker circuitBreaker;
+    private final PricingMetrics pricingMetrics;
+    private final BinlistAsyncClient binlistAsyncClient;
+    private final Executor binStoreExecutor;
+    private final BinlistRateLimiter rateLimiter;
+    private final BinlistHedging hedging;
+    private final Semaphore callPermits;
+    private final SingleFlight<String, BinResolution> lookups = new SingleFlight<>();
+
+    public BinlistService(@Qualifier("binlistRestTemplate") RestTemplate restTemplate, BinlistProperties properties,
+                          BinCountryCache binCountryCache, BinCountryStore binCountryStore,
+                          CircuitBreaker binlistCircuitBreaker, PricingMetrics pricingMetrics,
+                          BinlistAsyncClient binlistAsyncClient,
+                          @Qualifier("binStoreExecutor") Executor binStoreExecutor,
+                          BinlistRateLimiter binlistRateLimiter, BinlistHedging binlistHedging) {
+        this.restTemplate = restTemplate;
+        this.properties = properties;
+        this.binCountryCache = binCountryCache;
+        this.binCountryStore = binCountryStore;
+        this.circuitBreaker = binlistCircuitBreaker;
+        this.pricingMetrics = pricingMetrics;
+        this.binlistAsyncClient = binlistAsyncClient;
+        this.binStoreExecutor = binStoreExecutor;
+        this.rateLimiter = binlistRateLimiter;
+        this.hedging = binlistHedging;
+        this.callPermits = new Semaphore(properties.getApi().getMaxConcurrentCalls());
+    }
 
     public BinlistDto getCountryCodeByCardNumber(String cardNumber) {
-        String url = "https://lookup.binlist.net/" + cardNumber;
-        ResponseEntity<BinlistDto> response = restTemplate.getForEntity(url, BinlistDto.class);
-        return response.getBody();
+        return BinlistDto.ofCountry(resolve(cardNumber).getCountry());
+    }
+
+    /**
+     * Resolves the issuing country of a card, serving it from the BIN cache or the {@code bin_country} table
+     * when possible.
+     * Only the 8-digit BIN is sent to Binlist, never the full PAN, and concurrent misses for the same BIN
+     * share a single Binlist call. A caller joining a lookup already in flight waits no longer than its own
+     * {@link Deadline}, nor than the lookup itself can take.
+     * Unlike other resolvers it never returns {@code null}: Binlist is the authoritative source.
+     * @param cardNumber A validated card number.
+     * @return The issuing country and where it was served from.
+     * @throws ResourceNotFoundException If Binlist does not know the BIN.
+     * @throws BinlistUnavailableException If Binlist is failing, saturated or its circuit breaker is open.
+     */
+    @Override
+    public BinResolution resolve(String cardNumber) {
+        String cached = binCountryCache.getIfPresent(cardNumber);
+        if (cached != null) {
+            if (BinCountryCache.isUnknown(cached)) {
+                throw binNotFound();
+            }
+            return new BinResolution(cached, BinResolution.Source.CACHE);
+        }
+
+        String bin = BinCountryCache.binOf(cardNumber);
+        BinResolution resolution = lookups.execute(bin, () -> fetchAndCache(cardNumber, bin),
+                Deadline.current().cap(maxLookupTime()).toNanos(), this::joinTimedOut);
+        if (BinCountryCache.isUnknown(resolution.getCountry())) {
+            throw binNotFound();
+        }
+        return resolution;
+    }
+
+    /**
+     * Non-blocking variant of {@link #resolve}: memory hits complete immediately, and misses are resolved from the
+     * {@code bin_country} table on the BIN store executor or from Binlist with the non-blocking client.
+     * Concurrent misses for the same BIN, blocking or not, share a single lookup, bounded by the
+     * {@link Deadline} of the caller that started it.
+     * @param cardNumber A validated card number.
+     * @return The pending resolution. It fails with {@link ResourceNotFoundException} if Binlist does not know
+     * the BIN, or {@link BinlistUnavailableException} if Binlist cannot be used.
+     */
+    public CompletableFuture<BinResolution> resolveAsync(String cardNumber) {
+        String cached = binCountryCache.getIfPresent(cardNumber);
+        if (cached != null) {
+            if (BinCountryCache.isUnknown(cached)) {
+                return CompletableFuture.failedFuture(binNotFound());
+            }
+            return CompletableFuture.completedFuture(new BinResolution(cached, BinResolution.Source.CACHE));
+        }
+
+        String bin = BinCountryCache.binOf(cardNumber);
+        Deadline deadline = Deadline.current();
+        return lookups.executeAsync(bin, () -> fetchAndCacheAsync(cardNumber, bin, deadline)).thenApply(resolution -> {
+            if (BinCountryCache.isUnknown(resolution.getCountry())) {
+                throw binNotFound();
+            }
+            return resolution;
+        });
+    }
+
+    /**
+     * Returns the last known issuing country of a card, ignoring the regular cache TTL.
+     * Only meant to price cards while Binlist is unavailable.
+     * @param cardNumber A validated card number.
+     * @return The stale resolution, or {@code null} if the BIN was never resolved.
+     */
+    public BinResolution resolveStale(String cardNumber) {
+        String country = binCountryCache.getStale(cardNumber);
+        if (country == null) {
+            country = binCountryStore.findStale(BinCountryCache.binOf(cardNumber));
+        }
+        return country != null ? new BinResolution(country, BinResolution.Source.STALE_CACHE) : null;
+    }
+
+    /**
+     * Resolves a BIN missing from memory: from the {@code bin_country} table if a replica already resolved it,
+     * otherwise from Binlist. Answers are cached in memory, negative answers included, and new ones are
+     * queued to be written to the table. Runs once per BIN for all concurrent callers.
+     * @return The resolution, or {@link #NOT_FOUND} if Binlist does not know the BIN.
+     */
+    private BinResolution fetchAndCache(String cardNumber, String bin) {
+        // A flight for this BIN may have completed between the caller's cache miss and this one starting
+        String cached = binCountryCache.getIfPresent(cardNumber);
+        if (cached != null) {
+            return new BinResolution(cached, BinResolution.Source.CACHE);
+        }
+        String stored = binCountryStore.find(bin);
+        if (stored != null) {
+            return cacheStored(cardNumber, stored);
+        }
+        return cacheRemote(cardNumber, bin, fetchCountry(bin));
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchAndCache}. The {@code bin_country} read is a blocking JDBC call,
+     * so it runs on the BIN store executor instead of the caller's thread. That executor is not the BIN lookup
+     * executor, whose tasks may be waiting for this very lookup.
+     */
+    private CompletableFuture<BinResolution> fetchAndCacheAsync(String cardNumber, String bin, Deadline deadline) {
+        String cached = binCountryCache.getIfPresent(cardNumber);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new BinResolution(cached, BinResolution.Source.CACHE));
+        }
+        CompletableFuture<String> stored;
+        try {
+            stored = CompletableFuture.supplyAsync(() -> binCountryStore.find(bin), binStoreExecutor);
+        } catch (RejectedExecutionException e) {
+            pricingMetrics.binlistError("rejected");
+            return CompletableFuture.failedFuture(
+                    new BinlistUnavailableException("Too many pending BIN lookups.", e));
+        }
+        return stored.thenCompose(country -> country != null
+                ? CompletableFuture.completedFuture(cacheStored(cardNumber, country))
+                : fetchCountryAsync(bin, deadline).thenApply(remote -> cacheRemote(cardNumber, bin, remote)));
+    }
+
+    private BinResolution cacheStored(String cardNumber, String country) {
+        binCountryCache.put(cardNumber, country);
+        return new BinResolution(country, BinResolution.Source.STORE);
+    }
+
+    /**
+     * Caches a Binlist answer in memory and queues it for the {@code bin_country} table.
+     * @param country The issuing country, or {@code null} if Binlist does not know the BIN.
+     */
+    private BinResolution cacheRemote(String cardNumber, String bin, String country) {
+        if (country == null) {
+            binCountryCache.putUnknown(cardNumber);
+            return NOT_FOUND;
+        }
+        binCountryCache.put(cardNumber, country);
+        binCountryStore.save(bin, country);
+        return new BinResolution(country, BinResolution.Source.REMOTE);
+    }
+
+    /**
+     * Fetches the issuing country of a BIN from Binlist within the {@link Deadline} of the current request.
+     * With hedging enabled the calls are made by the non-blocking client, which can send a second one while the
+     * first is still waiting, and the calling thread waits for the first answer.
+     * @return The issuing country, or {@code null} if Binlist does not know the BIN.
+     * @throws BinlistUnavailableException If Binlist cannot be used or does not answer by the deadline.
+     */
+    private String fetchCountry(String bin) {
+        Deadline deadline = Deadline.current();
+        if (hedging.isEnabled()) {
+            return await(fetchCountryAsync(bin, deadline), deadline);
+        }
+        if (deadline.isExpired()) {
+            throw deadlineExceeded();
+        }
+        return fetchCountryBlocking(bin, deadline);
+    }
+
+    private String await(CompletableFuture<String> country, Deadline deadline) {
+        try {
+            return deadline.isBounded() ? country.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS) : country.get();
+        } catch (TimeoutException e) {
+            throw deadlineExceeded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BinlistUnavailableException("Binlist lookup failed.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BinlistUnavailableException("Interrupted while waiting for Binlist.", e);
+        }
     }
-}
 
+    /**
+     * Non-blocking Binlist lookup bounded by a deadline, hedged if enabled.
+     */
+    private CompletableFuture<String> fetchCountryAsync(String bin, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(deadlineExceeded());
+        }
+        if (!hedging.isEnabled()) {
+            return binlistAsyncClient.fetchCountry(bin, deadline.cap(properties.getApi().getReadTimeout()));
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // Calls sent and not failed yet: the lookup fails once every call sent has failed
+        AtomicInteger pending = new AtomicInteger(1);
+        hedging.onFirstCall();
+        pricingMetrics.hedgeableLookup();
+        sendCall(bin, deadline, result, pending, false);
+        if (!result.isDone()) {
+            CompletableFuture.delayedExecutor(hedging.delayNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> hedge(bin, deadline, result, pending));
+        }
+        return result;
+    }
+
+    /**
+     * Sends a second call for a lookup whose first call has not answered within the hedge delay, if the deadline
+     * and the hedging budget allow it. Whichever call answers first completes the lookup; the other one is left
+     * to complete in the background and its answer is ignored.
+     */
+    private void hedge(String bin, Deadline deadline, CompletableFuture<String> result, AtomicInteger pending) {
+        if (result.isDone() || deadline.isExpired()) {
+            return;
+        }
+        if (!hedging.tryHedge()) {
+            pricingMetrics.hedge(false);
+            return;
+        }
+        if (pending.getAndUpdate(calls -> calls == 0 ? 0 : calls + 1) == 0) {
+            // The first call failed in the meantime
+            return;
+        }
+        pricingMetrics.hedge(true);
+        sendCall(bin, deadline, result, pending, true);
+    }
+
+    private void sendCall(String bin, Deadline deadline, CompletableFuture<String> result, AtomicInteger pending,
+                          boolean hedged) {
+        long start = System.nanoTime();
+        binlistAsyncClient.fetchCountry(bin, deadline.cap(properties.getApi().getReadTimeout()))
+                .whenComplete((country, failure) -> {
+                    if (failure == null) {
+                        hedging.recordLatency(System.nanoTime() - start);
+                        // Counted before completing, so that the win is recorded by the time the caller sees it
+                        if (hedged && !result.isDone()) {
+                            pricingMetrics.hedgeWon();
+                        }
+                        result.complete(country);
+                    } else if (pending.decrementAndGet() == 0) {
+                        result.completeExceptionally(failure instanceof CompletionException
+                                && failure.getCause() != null ? failure.getCause() : failure);
+                    }
+                });
+    }
+
+    /**
+     * Longest a lookup can take once its {@code bin_country} read is done: waiting for its turn, for a call
+     * permit, then for the connection and the answer.
+     */
+    private Duration maxLookupTime() {
+        BinlistProperties.Api api = properties.getApi();
+        return properties.getRateLimit().getMaxWait().plus(api.getMaxWait())
+                .plus(api.getConnectTimeout()).plus(api.getReadTimeout());
+    }
+
+    private BinlistUnavailableException joinTimedOut() {
+        pricingMetrics.binlistError("deadline");
+        return new BinlistUnavailableException("Timed out waiting for a lookup of the same BIN.");
+    }
+
+    private BinlistUnavailableException deadlineExceeded() {
+        pricingMetrics.binlistError("deadline");
+        return new BinlistUnavailableException("Request deadline exceeded while waiting for Binlist.");
+    }
+
+    /**
+     * Calls Binlist through its circuit breaker, paced by the rate limiter and holding one of the
+     * {@code binlist.api.max-concurrent-calls} permits (the bulkhead) for the duration of the call.
+     * A 429 answer slows the rate limiter down but does not count as a failure for the breaker.
+     * Waiting for the rate limiter and for a permit stops at the deadline, and the Binlist client shortens its
+     * timeouts to the time left (see {@code RestTemplateConfig}).
+     * @return The issuing country, or {@code null} if Binlist does not know the BIN.
+     * @throws BinlistUnavailableException If the breaker is open, the call is not due within
+     * {@code binlist.rate-limit.max-wait}, no permit frees up within {@code binlist.api.max-wait},
+     * the deadline passes, Binlist answers 429 or the call fails.
+     */
+    private String fetchCountryBlocking(String bin, Deadline deadline) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            pricingMetrics.binlistError("circuit_open");
+            throw new BinlistUnavailableException("Binlist is unavailable (circuit breaker open).");
+        }
+        awaitRateLimit(deadline);
+        acquireCallPermit(deadline);
+        long start = System.nanoTime();
+        try {
+            if (deadline.isExpired()) {
+                circuitBreaker.releasePermission();
+                throw deadlineExceeded();
+            }
+            String country = callBinlist(bin);
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            rateLimiter.onSuccess();
+            return country;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            circuitBreaker.releasePermission();
+            HttpHeaders headers = e.getResponseHeaders();
+            rateLimiter.onRateLimited(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null);
+            pricingMetrics.binlistError("rate_limited");
+            throw new BinlistUnavailableException("Binlist rate limit exceeded.", e);
+        } catch (RestClientException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            pricingMetrics.binlistError(errorType(e));
+            throw new BinlistUnavailableException("Binlist lookup failed.", e);
+        } finally {
+            callPermits.release();
+        }
+    }
+
+    private void awaitRateLimit(Deadline deadline) {
+        long maxWait = properties.getRateLimit().getMaxWait().toNanos();
+        long remaining = deadline.remainingNanos();
+        long wait = rateLimiter.reserve(Math.min(maxWait, remaining));
+        if (wait < 0) {
+            circuitBreaker.releasePermission();
+            if (remaining < maxWait) {
+                throw deadlineExceeded();
+            }
+            pricingMetrics.binlistError("throttled");
+            throw new BinlistUnavailableException("Binlist call budget exhausted.");
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.releasePermission();
+                throw new BinlistUnavailableException("Interrupted while waiting for a Binlist call slot.", e);
+            }
+        }
+    }
+
+    private void acquireCallPermit(Deadline deadline) {
+        long maxWait = properties.getApi().getMaxWait().toNanos();
+        long remaining = deadline.remainingNanos();
+        try {
+            if (callPermits.tryAcquire(Math.min(maxWait, remaining), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission();
+            throw new BinlistUnavailableException("Interrupted while waiting for a Binlist call slot.", e);
+        }
+        circuitBreaker.releasePermission();
+        if (remaining < maxWait) {
+            throw deadlineExceeded();
+        }
+        pricingMetrics.binlistError("bulkhead_full");
+        throw new BinlistUnavailableException("Too many concurrent Binlist lookups.");
+    }
+
+    private String callBinlist(String bin) {
+        String url = properties.getApi().getBaseUrl() + "/" + bin;
+        try {
+            ResponseEntity<BinlistDto> response = restTemplate.getForEntity(url, BinlistDto.class);
+            BinlistDto body = response.getBody();
+            if (body == null || body.getCountry() == null) {
+                return null;
+            }
+            return body.getCountry().getAlpha2();
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    /**
+     * Classifies a failed Binlist call for the {@code binlist.errors} counter.
+     */
+    private static String errorType(RestClientException e) {
+        if (e instanceof ResourceAccessException) {
+            // Read and connect timeouts both extend InterruptedIOException
+            return e.getCause() instanceof InterruptedIOException ? "timeout" : "io";
+        }
+        if (e instanceof HttpStatusCodeException statusCodeException) {
+            HttpStatusCode status = statusCodeException.getStatusCode();
+            return status.is5xxServerError() ? "http_5xx" : "http_4xx";
+        }
+        return "other";
+    }
+
+    private static ResourceNotFoundException binNotFound() {
+        return new ResourceNotFoundException("Issuing country not found for the card BIN.");
+    }
+}
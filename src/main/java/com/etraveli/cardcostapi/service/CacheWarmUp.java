@@ -0,0 +1,259 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.entity.BinCountry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the clearing cost snapshot and the hottest BINs into memory at startup.
+ * It runs as an {@link ApplicationRunner}, so the application only reports itself ready
+ * ({@code /actuator/health/readiness}) once the warm-up is done or its {@code pricing.warm-up.timeout} has elapsed.
+ * Hot BINs come from {@code pricing.warm-up.bins-location} when set and readable, otherwise from the most recent
+ * rows of the {@code bin_country} table. BINs of the file are read from the table first; only the ones missing
+ * from it are resolved by Binlist, no more than its rate limit allows within the timeout.
+ * Everything is loaded in parallel on the BIN lookup executor, and whatever is still running at the timeout is
+ * cancelled so that it does not compete with live traffic for Binlist calls and executor threads.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmUp implements ApplicationRunner {
+
+    private final ClearingCostSnapshot clearingCostSnapshot;
+    private final BinCountryStore binCountryStore;
+    private final BinCountryCache binCountryCache;
+    private final BinlistService binlistService;
+    private final PricingProperties pricingProperties;
+    private final BinlistProperties binlistProperties;
+    private final ResourceLoader resourceLoader;
+    @Qualifier("binLookupExecutor")
+    private final Executor binLookupExecutor;
+
+    /**
+     * What the warm-up loaded.
+     * @param costs Countries in the clearing cost snapshot.
+     * @param bins BINs now in the memory cache.
+     * @param failedBins BINs that could not be resolved.
+     * @param skippedBins BINs of the file missing from the table and not sent to Binlist: beyond what its rate
+     * limit allows within the timeout, or still waiting when the timeout elapsed.
+     * @param unfinished Loading steps (the costs, the stored BINs or a Binlist worker) still running
+     * when the timeout elapsed.
+     * @param elapsedMillis Time spent warming up.
+     */
+    public record Report(int costs, int bins, int failedBins, int skippedBins, int unfinished, long elapsedMillis) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (pricingProperties.getWarmUp().isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Loads the caches, waiting at most {@code pricing.warm-up.timeout}.
+     * @return What was loaded.
+     */
+    public Report warmUp() {
+        PricingProperties.WarmUp config = pricingProperties.getWarmUp();
+        long start = System.nanoTime();
+        // Binlist lookups of the warm-up give up at the timeout instead of running on after it
+        Deadline deadline = Deadline.after(config.getTimeout());
+        AtomicInteger costs = new AtomicInteger();
+        AtomicInteger bins = new AtomicInteger();
+        AtomicInteger failedBins = new AtomicInteger();
+        Queue<String> remoteBins = new ConcurrentLinkedQueue<>();
+        AtomicInteger skippedBins = new AtomicInteger();
+
+        List<CompletableFuture<?>> steps = new ArrayList<>();
+        List<CompletableFuture<?>> workers = new CopyOnWriteArrayList<>();
+        steps.add(CompletableFuture.runAsync(() -> costs.set(clearingCostSnapshot.refresh().size()),
+                binLookupExecutor));
+        List<String> fileBins = config.getBinsLocation() == null || config.getBinsLocation().isBlank()
+                ? null : readBins(config.getBinsLocation(), config.getTopBins());
+        CompletableFuture<?> loaded;
+        if (fileBins == null) {
+            steps.add(CompletableFuture.runAsync(() -> {
+                for (BinCountry row : binCountryStore.findRecent(config.getTopBins())) {
+                    binCountryCache.putBin(row.getBin(), row.getCountryCode());
+                    bins.incrementAndGet();
+                }
+            }, binLookupExecutor));
+            loaded = CompletableFuture.allOf(steps.toArray(new CompletableFuture[0]));
+        } else {
+            CompletableFuture<List<String>> stored = CompletableFuture.supplyAsync(
+                    () -> loadStoredBins(fileBins, bins), binLookupExecutor);
+            steps.add(stored);
+            CompletableFuture<?> remote = stored.thenCompose(misses -> {
+                int budget = Math.min(misses.size(), remoteLookupBudget(config));
+                remoteBins.addAll(misses.subList(0, budget));
+                skippedBins.addAndGet(misses.size() - budget);
+                List<CompletableFuture<?>> started = new ArrayList<>();
+                for (int i = Math.min(budget, remoteLookupWorkers()); i > 0; i--) {
+                    started.add(CompletableFuture.supplyAsync(deadline.propagate(
+                            () -> resolveRemote(remoteBins, deadline, bins, failedBins)), binLookupExecutor));
+                }
+                workers.addAll(started);
+                return CompletableFuture.allOf(started.toArray(new CompletableFuture[0]));
+            });
+            loaded = CompletableFuture.allOf(steps.get(0), remote);
+        }
+
+        await(loaded, config.getTimeout().toNanos() - (System.nanoTime() - start));
+        int unfinished = 0;
+        for (CompletableFuture<?> task : steps) {
+            unfinished += task.cancel(false) ? 1 : 0;
+        }
+        for (CompletableFuture<?> task : workers) {
+            unfinished += task.cancel(false) ? 1 : 0;
+        }
+        skippedBins.addAndGet(drain(remoteBins));
+        Report report = new Report(costs.get(), bins.get(), failedBins.get(), skippedBins.get(), unfinished,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Warm-up finished in {} ms: {} clearing costs, {} BINs loaded, {} failed, {} skipped, {} unfinished",
+                report.elapsedMillis(), report.costs(), report.bins(), report.failedBins(), report.skippedBins(),
+                report.unfinished());
+        return report;
+    }
+
+    /**
+     * Caches the BINs found in the {@code bin_country} table, read with a single query.
+     * @return The BINs missing from the table, in the order of the file.
+     */
+    private List<String> loadStoredBins(List<String> fileBins, AtomicInteger bins) {
+        Map<String, String> stored = binCountryStore.findAll(fileBins);
+        List<String> misses = new ArrayList<>();
+        for (String bin : fileBins) {
+            String country = stored.get(bin);
+            if (country != null) {
+                binCountryCache.putBin(bin, country);
+                bins.incrementAndGet();
+            } else {
+                misses.add(bin);
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Resolves BINs from the queue with Binlist, one at a time, until it is empty or the deadline has passed.
+     */
+    private Void resolveRemote(Queue<String> remoteBins, Deadline deadline, AtomicInteger bins,
+                               AtomicInteger failedBins) {
+        String bin;
+        while (!deadline.isExpired() && (bin = remoteBins.poll()) != null) {
+            try {
+                binlistService.resolve(bin);
+                bins.incrementAndGet();
+            } catch (RuntimeException e) {
+                failedBins.incrementAndGet();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of Binlist lookups the rate limiter lets through within the warm-up timeout.
+     */
+    private int remoteLookupBudget(PricingProperties.WarmUp config) {
+        BinlistProperties.RateLimit rateLimit = binlistProperties.getRateLimit();
+        if (!rateLimit.isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        long periods = config.getTimeout().toNanos() / rateLimit.getLimitRefreshPeriod().toNanos();
+        return (int) Math.min(Integer.MAX_VALUE, rateLimit.getBurst() + periods * rateLimit.getLimitForPeriod());
+    }
+
+    /**
+     * Number of lookups sent to Binlist at once: no more than can wait for their turn within
+     * {@code binlist.rate-limit.max-wait}, so that they are paced rather than turned away by the rate limiter,
+     * and no more than the BIN lookup executor runs at once.
+     */
+    private int remoteLookupWorkers() {
+        int poolSize = binlistProperties.getExecutor().getPoolSize();
+        BinlistProperties.RateLimit rateLimit = binlistProperties.getRateLimit();
+        if (!rateLimit.isEnabled()) {
+            return poolSize;
+        }
+        long waiting = rateLimit.getLimitForPeriod() * rateLimit.getMaxWait().toNanos()
+                / rateLimit.getLimitRefreshPeriod().toNanos();
+        return (int) Math.max(1, Math.min(poolSize, waiting));
+    }
+
+    private static int drain(Queue<String> queue) {
+        int drained = 0;
+        while (queue.poll() != null) {
+            drained++;
+        }
+        return drained;
+    }
+
+    private static void await(CompletableFuture<?> loaded, long timeoutNanos) {
+        try {
+            loaded.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Warm-up timed out, continuing startup with partially loaded caches");
+        } catch (ExecutionException e) {
+            log.warn("Warm-up step failed: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} 8-digit BINs, one per line; blank lines and {@code #} comments are skipped.
+     * @return The BINs, or {@code null} if the file cannot be read, in which case the stored BINs are loaded instead.
+     */
+    private List<String> readBins(String location, int limit) {
+        Resource resource = resourceLoader.getResource(location);
+        List<String> bins = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while (bins.size() < limit && (line = reader.readLine()) != null) {
+                lineNumber++;
+                String bin = line.strip();
+                if (bin.isEmpty() || bin.startsWith("#")) {
+                    continue;
+                }
+                if (bin.length() != BinCountryCache.LONG_BIN_LENGTH || !PanValidator.isValidFormat(bin)) {
+                    // The entry itself is not logged, in case it is a full card number
+                    log.warn("Skipping invalid warm-up BIN on line {} of {}", lineNumber, location);
+                    continue;
+                }
+                bins.add(bin);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read warm-up BINs from {}, loading the most recent stored BINs instead: {}",
+                    location, e.getMessage());
+            return null;
+        }
+        return bins;
+    }
+}
@@ -0,0 +1,54 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.entity.ClearingCost;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads clearing cost price lists exported as CSV.
+ */
+public final class ClearingCostCsv {
+
+    private static final String HEADER = "country_code,cost";
+
+    private ClearingCostCsv() {
+    }
+
+    /**
+     * Parses lines of the form {@code country,cost} (e.g. {@code US,5.00}). An optional
+     * {@code country_code,cost} header, blank lines and lines starting with {@code #} are ignored.
+     * @param reader The CSV source.
+     * @return The costs, in file order and without ids.
+     * @throws IOException If the source cannot be read.
+     * @throws IllegalArgumentException If a line is malformed.
+     */
+    public static List<ClearingCost> parse(Reader reader) throws IOException {
+        List<ClearingCost> costs = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")
+                    || (costs.isEmpty() && line.replace(" ", "").equalsIgnoreCase(HEADER))) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("Invalid clearing cost at line " + lineNumber + ": " + line);
+            }
+            try {
+                costs.add(new ClearingCost(null, fields[0].trim(), new BigDecimal(fields[1].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cost at line " + lineNumber + ": " + fields[1].trim());
+            }
+        }
+        return costs;
+    }
+}
@@ -1,30 +1,72 @@
 package com.etraveli.cardcostapi.service;
 
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.etraveli.cardcostapi.dto.BinResolution;
 import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.dto.ClearingCostImportResult;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
 import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import com.etraveli.cardcostapi.exception.BinlistUnavailableException;
+import com.etraveli.cardcostapi.exception.InvalidCardNumberException;
 import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import com.etraveli.cardcostapi.repository.ClearingCostChangeRepository;
 import com.etraveli.cardcostapi.repository.ClearingCostRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @RequiredArgsConstructor
-public class ClearingCostService implements IClearingCostService {
+public class ClearingCostService implements IClearingCostService, IClearingCostAsyncService {
 
     private final ClearingCostRepository clearingCostRepository;
+    private final ClearingCostChangeRepository clearingCostChangeRepository;
     private final BinlistService binlistService;
+    private final LocalBinResolver localBinResolver;
+    private final ClearingCostSnapshot clearingCostSnapshot;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier("binLookupExecutor")
+    private final Executor binLookupExecutor;
+    private final PricingProperties pricingProperties;
+    private final PricingMetrics pricingMetrics;
 
     /**
-     * Saves a new clearing cost to the database.
+     * Saves the clearing cost of a country: the cost of a country that already has one is updated
+     * instead of adding a second row, which the unique constraint on {@code country_code} would reject.
+     * The in-memory cost snapshot is rebuilt once the change commits, and other replicas pick it up
+     * from the change log.
      * @param clearingCost The cost to be saved.
      * @return The saved 'ClearingCost'.
      */
     @Override
+    @Transactional
     public ClearingCost saveClearingCost(ClearingCost clearingCost) {
-        return clearingCostRepository.save(clearingCost);
+        ClearingCost saved = clearingCostRepository.findByCountryCode(clearingCost.getCountryCode())
+                .map(existing -> {
+                    existing.setCost(clearingCost.getCost());
+                    return existing;
+                })
+                .orElseGet(() -> clearingCostRepository.save(
+                        new ClearingCost(null, clearingCost.getCountryCode(), clearingCost.getCost())));
+        recordChange(saved.getCountryCode());
+        return saved;
     }
 
     /**
@@ -34,21 +76,118 @@ public class ClearingCostService implements IClearingCostService {
      * @return The updated 'ClearingCost'.
      */
     @Override
+    @Transactional
     public ClearingCost updateClearingCost(Long id, ClearingCost clearingCost) {
         ClearingCost existing = clearingCostRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cost not found"));
+        String previousCountryCode = existing.getCountryCode();
         existing.setCountryCode(clearingCost.getCountryCode());
         existing.setCost(clearingCost.getCost());
-        return clearingCostRepository.save(existing);
+        ClearingCost saved = clearingCostRepository.save(existing);
+        if (!previousCountryCode.equals(saved.getCountryCode())) {
+            clearingCostChangeRepository.save(new ClearingCostChange(previousCountryCode));
+        }
+        recordChange(saved.getCountryCode());
+        return saved;
     }
 
     /**
      * Deletes a cost from the database by its ID.
      * @param id The ID of the cost to be deleted.
      */
+    @Transactional
     public void deleteClearingCost(Long id) {
-        clearingCostRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Clearing cost not found for ID: " + id));
+        ClearingCost existing = clearingCostRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Clearing cost not found for ID: " + id));
         clearingCostRepository.deleteById(id);
+        recordChange(existing.getCountryCode());
+    }
+
+    /**
+     * Imports a price list in a single transaction: countries already in the table are updated and new ones
+     * are inserted, all through JDBC batches. With {@code replace}, the list is taken as complete and countries
+     * missing from it are deleted.
+     * The snapshot is rebuilt once, after the commit, so readers see either the old or the new price set.
+     * @param clearingCosts The costs to import, at most one per country.
+     * @param replace Whether countries missing from the list are deleted.
+     * @return How many countries were created, updated, left unchanged and deleted.
+     * @throws IllegalArgumentException If the list is empty or too long, repeats a country, or holds an invalid
+     * country code or cost. Nothing is written in that case.
+     */
+    @Override
+    @Transactional
+    public ClearingCostImportResult importClearingCosts(List<ClearingCost> clearingCosts, boolean replace) {
+        validateImport(clearingCosts);
+
+        Map<String, ClearingCost> existingByCountry = new HashMap<>();
+        List<ClearingCost> removed = new ArrayList<>();
+        for (ClearingCost existing : clearingCostRepository.findAll()) {
+            if (existingByCountry.putIfAbsent(existing.getCountryCode(), existing) != null) {
+                // Duplicate rows of a country are never priced (the first one wins), so they go as well
+                removed.add(existing);
+            }
+        }
+
+        List<ClearingCost> created = new ArrayList<>();
+        Set<String> changedCountries = new LinkedHashSet<>();
+        int updated = 0;
+        for (ClearingCost imported : clearingCosts) {
+            ClearingCost existing = existingByCountry.remove(imported.getCountryCode());
+            if (existing == null) {
+                created.add(new ClearingCost(null, imported.getCountryCode(), imported.getCost()));
+                changedCountries.add(imported.getCountryCode());
+            } else if (existing.getCost().compareTo(imported.getCost()) != 0) {
+                // Managed entity: flushed as a batched update on commit
+                existing.setCost(imported.getCost());
+                changedCountries.add(imported.getCountryCode());
+                updated++;
+            }
+        }
+        if (replace) {
+            removed.addAll(existingByCountry.values());
+        }
+        removed.forEach(row -> changedCountries.add(row.getCountryCode()));
+
+        clearingCostRepository.saveAll(created);
+        clearingCostRepository.deleteAllInBatch(removed);
+        if (!changedCountries.isEmpty()) {
+            clearingCostChangeRepository.saveAll(changedCountries.stream().map(ClearingCostChange::new).toList());
+            eventPublisher.publishEvent(new ClearingCostsChangedEvent());
+        }
+        return new ClearingCostImportResult(created.size(), updated,
+                clearingCosts.size() - created.size() - updated, removed.size());
+    }
+
+    private static void validateImport(List<ClearingCost> clearingCosts) {
+        if (clearingCosts == null || clearingCosts.isEmpty()) {
+            throw new IllegalArgumentException("The import contains no clearing costs.");
+        }
+        if (clearingCosts.size() > MAX_IMPORT_SIZE) {
+            throw new IllegalArgumentException("An import may contain at most " + MAX_IMPORT_SIZE + " clearing costs.");
+        }
+        Set<String> countries = new HashSet<>();
+        for (int i = 0; i < clearingCosts.size(); i++) {
+            ClearingCost clearingCost = clearingCosts.get(i);
+            String countryCode = clearingCost.getCountryCode();
+            if (!CountryCostTable.isSupported(countryCode)) {
+                throw new IllegalArgumentException("Invalid country code at position " + i + ": " + countryCode);
+            }
+            if (clearingCost.getCost() == null || clearingCost.getCost().signum() < 0) {
+                throw new IllegalArgumentException("Invalid cost for " + countryCode + ": " + clearingCost.getCost());
+            }
+            if (!countries.add(countryCode)) {
+                throw new IllegalArgumentException("Country " + countryCode + " appears more than once.");
+            }
+        }
+    }
+
+    /**
+     * Logs a change of a country's cost in the same transaction as the change itself, for the other replicas,
+     * and notifies this replica's snapshot.
+     */
+    private void recordChange(String countryCode) {
+        clearingCostChangeRepository.save(new ClearingCostChange(countryCode));
+        eventPublisher.publishEvent(new ClearingCostsChangedEvent());
     }
 
     /**
@@ -80,39 +219,280 @@ public class ClearingCostService implements IClearingCostService {
      */
     @Override
     public BigDecimal calculateClearingCost(String cardNumber) {
-        // Validate the PAN before proceeding
-        if (!isPanValid(cardNumber)) {
-            throw new IllegalArgumentException("Número de tarjeta inválido");
+        return resolveClearingCost(cardNumber).getCost();
+    }
+
+    /**
+     * Resolves the issuing country and clearing cost of a card in a single pass:
+     * the PAN is validated, the BIN is resolved and the cost is looked up exactly once.
+     * The cost is read from the in-memory {@link ClearingCostSnapshot}, never from the database.
+     * @param cardNumber The card number (PAN).
+     * @return The country, cost and origin of the cost.
+     * While Binlist is unavailable the card is priced according to {@code pricing.degraded.policy}.
+     * @throws InvalidCardNumberException If the PAN is not valid.
+     */
+    @Override
+    public ClearingCostResolution resolveClearingCost(String cardNumber) {
+        long start = System.nanoTime();
+        long binPrefix = PanValidator.validate(cardNumber);
+        pricingMetrics.recordValidation(start);
+        if (binPrefix == PanValidator.INVALID) {
+            throw new InvalidCardNumberException();
+        }
+
+        ClearingCostResolution resolution;
+        try {
+            resolution = priceFromSnapshot(resolveBin(cardNumber, binPrefix));
+        } catch (BinlistUnavailableException e) {
+            resolution = priceDegraded(cardNumber, e);
+        }
+        pricingMetrics.recordRequest(start, resolution.getCountry());
+        return resolution;
+    }
+
+    /**
+     * Non-blocking variant of {@link #resolveClearingCost}: the calling thread is never blocked on Binlist,
+     * which is called with the non-blocking client on a cache miss.
+     * @param cardNumber The card number (PAN).
+     * @return The pending country, cost and origin of the cost. It fails with {@link InvalidCardNumberException}
+     * if the PAN is not valid and with the exceptions of {@link #resolveClearingCost} otherwise.
+     */
+    @Override
+    public CompletableFuture<ClearingCostResolution> resolveClearingCostAsync(String cardNumber) {
+        long start = System.nanoTime();
+        long binPrefix = PanValidator.validate(cardNumber);
+        pricingMetrics.recordValidation(start);
+        if (binPrefix == PanValidator.INVALID) {
+            return CompletableFuture.failedFuture(new InvalidCardNumberException());
         }
 
-        String countryCode = getCountryCodeFromCardNumber(cardNumber).getCountry().getAlpha2();
-        ClearingCost clearingCost = clearingCostRepository.findByCountryCode(countryCode)
-                .orElseGet(() -> getDefaultClearingCost(countryCode));
-        return clearingCost.getCost();
+        return resolveBinAsync(cardNumber, binPrefix)
+                .thenApply(this::priceFromSnapshot)
+                .exceptionally(failure -> {
+                    if (unwrap(failure) instanceof BinlistUnavailableException unavailable) {
+                        return priceDegraded(cardNumber, unavailable);
+                    }
+                    throw failure instanceof CompletionException completion
+                            ? completion : new CompletionException(failure);
+                })
+                .thenApply(resolution -> {
+                    pricingMetrics.recordRequest(start, resolution.getCountry());
+                    return resolution;
+                });
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> calculateClearingCostAsync(String cardNumber) {
+        return resolveClearingCostAsync(cardNumber).thenApply(ClearingCostResolution::getCost);
     }
 
     /**
-     * Retrieves the country code of the card using Binlist.
+     * Non-blocking resolution of the issuing country of a validated card, from the local BIN table or Binlist.
+     * @param cardNumber A validated card number.
+     * @return The pending issuing country and where it was resolved.
+     */
+    @Override
+    public CompletableFuture<BinResolution> resolveBinAsync(String cardNumber) {
+        return resolveBinAsync(cardNumber, BinRangeTable.binPrefix(cardNumber));
+    }
+
+    /**
+     * Calculates the clearing cost of many cards at once.
+     * Cards sharing a BIN are resolved once, distinct BINs are resolved concurrently within the request's
+     * {@link Deadline} and all costs are read from a single snapshot of the clearing cost table.
+     * @param cardNumbers The card numbers (PANs) to price.
+     * @return One item per card, in request order, with either its country and cost or an error.
+     */
+    @Override
+    public List<BatchCostItem> calculateClearingCosts(List<String> cardNumbers) {
+        Map<Long, CompletableFuture<BinResolution>> resolutionsByBin = new HashMap<>();
+        List<CompletableFuture<BinResolution>> resolutions = new ArrayList<>(cardNumbers.size());
+        Deadline deadline = Deadline.current();
+        for (String cardNumber : cardNumbers) {
+            long binPrefix = PanValidator.validate(cardNumber);
+            if (binPrefix == PanValidator.INVALID) {
+                resolutions.add(null);
+                continue;
+            }
+            resolutions.add(resolutionsByBin.computeIfAbsent(binPrefix,
+                    bin -> submitLookup(cardNumber, binPrefix, deadline)));
+        }
+
+        CountryCostTable costs = clearingCostSnapshot.table();
+        List<BatchCostItem> items = new ArrayList<>(cardNumbers.size());
+        for (int i = 0; i < resolutions.size(); i++) {
+            CompletableFuture<BinResolution> resolution = resolutions.get(i);
+            if (resolution == null) {
+                items.add(BatchCostItem.ofError(i, InvalidCardNumberException.MESSAGE));
+                continue;
+            }
+            try {
+                BinResolution bin = resolution.join();
+                items.add(BatchCostItem.ofResolution(i, price(bin, costs, false)));
+            } catch (CompletionException e) {
+                items.add(batchErrorItem(i, cardNumbers.get(i), e.getCause()));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Resolves a BIN of a batch on the BIN lookup executor.
+     * @return The pending resolution. It fails with {@link RejectedExecutionException} if the executor's queue
+     * is full, so that only the cards of this BIN are reported as errors.
+     */
+    private CompletableFuture<BinResolution> submitLookup(String cardNumber, long binPrefix, Deadline deadline) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    deadline.propagate(() -> resolveBin(cardNumber, binPrefix)), binLookupExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Prices a single card of a bulk job, reporting failures in the item instead of throwing.
+     * @param index The position of the card in the job.
+     * @param cardNumber The card number (PAN).
+     * @return The card's country and cost, or the reason it could not be priced.
+     */
+    @Override
+    public BatchCostItem priceCard(int index, String cardNumber) {
+        long binPrefix = PanValidator.validate(cardNumber);
+        if (binPrefix == PanValidator.INVALID) {
+            return BatchCostItem.ofError(index, InvalidCardNumberException.MESSAGE);
+        }
+        try {
+            BinResolution bin = resolveBin(cardNumber, binPrefix);
+            return BatchCostItem.ofResolution(index, price(bin, clearingCostSnapshot.table(), false));
+        } catch (RuntimeException e) {
+            return batchErrorItem(index, cardNumber, e);
+        }
+    }
+
+    /**
+     * Looks up the cost of a resolved country in the snapshot and prices the card with it.
+     */
+    private ClearingCostResolution priceFromSnapshot(BinResolution bin) {
+        long costLookupStart = System.nanoTime();
+        ClearingCostResolution resolution = price(bin, clearingCostSnapshot.table(), false);
+        pricingMetrics.recordCostLookup(costLookupStart);
+        return resolution;
+    }
+
+    /**
+     * Builds the resolution of a card from its issuing country and the cost configured for it.
+     * @param bin The resolved issuing country.
+     * @param costs The clearing cost snapshot to price with.
+     * @param degraded Whether the country was resolved in degraded mode.
+     * @return The resolution, using the default cost when the country has no specific entry.
+     */
+    private ClearingCostResolution price(BinResolution bin, CountryCostTable costs, boolean degraded) {
+        String countryCode = bin.getCountry();
+        long countryCost = costs.cost(countryCode);
+        if (countryCost != CountryCostTable.NO_COST) {
+            return new ClearingCostResolution(countryCode, countryCost, ClearingCostResolution.CostSource.COUNTRY,
+                    bin.isCached(), degraded);
+        }
+        pricingMetrics.defaultCostUsed("no_country_cost");
+        return new ClearingCostResolution(countryCode, costs.defaultCost(),
+                ClearingCostResolution.CostSource.DEFAULT, bin.isCached(), degraded);
+    }
+
+    /**
+     * Prices a card while Binlist is unavailable, according to {@code pricing.degraded.policy}:
+     * the last known country of its BIN, or the OTHER cost, or a failure.
+     * @param cardNumber A validated card number.
+     * @param cause Why Binlist could not be used.
+     * @return A resolution flagged as degraded.
+     * @throws BinlistUnavailableException If the policy is {@code FAIL}.
+     */
+    private ClearingCostResolution priceDegraded(String cardNumber, BinlistUnavailableException cause) {
+        PricingProperties.DegradedPolicy policy = pricingProperties.getDegraded().getPolicy();
+        if (policy == PricingProperties.DegradedPolicy.FAIL) {
+            throw cause;
+        }
+        if (policy == PricingProperties.DegradedPolicy.STALE_CACHE) {
+            BinResolution stale = binlistService.resolveStale(cardNumber);
+            if (stale != null) {
+                return price(stale, clearingCostSnapshot.table(), true);
+            }
+        }
+        pricingMetrics.defaultCostUsed("binlist_unavailable");
+        return new ClearingCostResolution(null, clearingCostSnapshot.table().defaultCost(),
+                ClearingCostResolution.CostSource.FALLBACK, false, true);
+    }
+
+    private BatchCostItem batchErrorItem(int index, String cardNumber, Throwable cause) {
+        if (cause instanceof BinlistUnavailableException unavailable) {
+            try {
+                return BatchCostItem.ofResolution(index, priceDegraded(cardNumber, unavailable));
+            } catch (BinlistUnavailableException e) {
+                return BatchCostItem.ofError(index, e.getMessage());
+            }
+        }
+        if (cause instanceof ResourceNotFoundException) {
+            return BatchCostItem.ofError(index, cause.getMessage());
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return BatchCostItem.ofError(index, BUSY_ERROR);
+        }
+        return BatchCostItem.ofError(index, "Could not resolve the issuing country of the card.");
+    }
+
+    /**
+     * Retrieves the country code of the card using the local BIN table or Binlist.
      * @param cardNumber The card number.
      * @return The issuing country code.
      */
 
     @Override
     public BinlistDto getCountryCodeFromCardNumber(String cardNumber) {
-        return binlistService.getCountryCodeByCardNumber(cardNumber);
+        return BinlistDto.ofCountry(resolveBin(cardNumber, BinRangeTable.binPrefix(cardNumber)).getCountry());
     }
 
     /**
-     * Provides a default cost for unspecified countries (OTHERS).
-     * @param countryCode The country code for which the cost needs to be determined.
-     * @return 'ClearingCost' with the default cost.
+     * Resolves the issuing country from the local BIN table, falling back to Binlist on a miss.
+     * @param cardNumber A validated card number.
+     * @param binPrefix The numeric 8-digit BIN of the card, as returned by {@link PanValidator#validate}.
+     * @return The issuing country and where it was resolved.
      */
+    private BinResolution resolveBin(String cardNumber, long binPrefix) {
+        long start = System.nanoTime();
+        try {
+            BinResolution local = localBinResolver.resolve(binPrefix);
+            BinResolution bin = local != null ? local : binlistService.resolve(cardNumber);
+            pricingMetrics.recordBinResolution(start, bin.getSource());
+            return bin;
+        } catch (RuntimeException e) {
+            pricingMetrics.recordBinResolutionFailure(start, failureOutcome(e));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<BinResolution> resolveBinAsync(String cardNumber, long binPrefix) {
+        long start = System.nanoTime();
+        BinResolution local = localBinResolver.resolve(binPrefix);
+        CompletableFuture<BinResolution> bin = local != null
+                ? CompletableFuture.completedFuture(local) : binlistService.resolveAsync(cardNumber);
+        return bin.whenComplete((resolution, failure) -> {
+            if (failure == null) {
+                pricingMetrics.recordBinResolution(start, resolution.getSource());
+            } else {
+                pricingMetrics.recordBinResolutionFailure(start, failureOutcome(unwrap(failure)));
+            }
+        });
+    }
+
+    private static String failureOutcome(Throwable failure) {
+        if (failure instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        return failure instanceof BinlistUnavailableException ? "unavailable" : "error";
+    }
 
-    private ClearingCost getDefaultClearingCost(String countryCode) {
-        ClearingCost defaultCost = new ClearingCost();
-        defaultCost.setCountryCode(countryCode);
-        defaultCost.setCost(new BigDecimal("10.00"));
-        return defaultCost;
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
     }
 
     /**
@@ -122,7 +502,7 @@ public class ClearingCostService implements IClearingCostService {
      */
     @Override
     public boolean isPanValid(String pan) {
-        return isValidPanFormat(pan) && isValidLuhn(pan);
+        return PanValidator.isValid(pan);
     }
 
     /**
@@ -131,10 +511,7 @@ public class ClearingCostService implements IClearingCostService {
      * @return Verdadero si el formato es válido, falso de lo contrario.
      */
     public boolean isValidPanFormat(String pan) {
-        if (pan == null || pan.length() < 8 || pan.length() > 19) {
-            return false;
-        }
-        return pan.matches("\\d+");
+        return PanValidator.isValidFormat(pan);
     }
 
     /**
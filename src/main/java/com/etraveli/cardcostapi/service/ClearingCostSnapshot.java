@@ -0,0 +1,206 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import com.etraveli.cardcostapi.repository.ClearingCostChangeRepository;
+import com.etraveli.cardcostapi.repository.ClearingCostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable in-memory copy of the {@code clearing_cost} table, held as a {@link CountryCostTable}.
+ * Readers get the current table through a volatile reference and never touch the database;
+ * the table is rebuilt and swapped atomically after every committed change.
+ * Changes made by other replicas are picked up by polling the {@code clearing_cost_change} log every
+ * {@code pricing.snapshot.poll-interval}: only the countries changed since the last poll are read again.
+ * The age of the snapshot is published as {@code pricing.snapshot.staleness}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClearingCostSnapshot implements MeterBinder {
+
+    private final ClearingCostRepository clearingCostRepository;
+    private final ClearingCostChangeRepository clearingCostChangeRepository;
+    private final PricingProperties pricingProperties;
+
+    private volatile CountryCostTable table;
+    /** Most recent change reflected in the table, by database time. */
+    private Instant lastChangeAt = Instant.EPOCH;
+    /** Changes within the commit grace period that were already applied. */
+    private Set<Long> appliedChangeIds = Set.of();
+    /** {@link System#nanoTime()} at the start of the last successful sync. */
+    private volatile long lastSyncNanos;
+
+    /**
+     * Returns the clearing cost configured for a country.
+     * The pricing path reads {@link #table()} instead, which does not allocate.
+     * @param countryCode The ISO country code.
+     * @return The cost, or {@code null} if the country has no specific entry.
+     */
+    public BigDecimal getCost(String countryCode) {
+        long cost = table().cost(countryCode);
+        return cost != CountryCostTable.NO_COST ? CountryCostTable.toBigDecimal(cost) : null;
+    }
+
+    /**
+     * Returns the current snapshot of all clearing costs.
+     */
+    public CountryCostTable table() {
+        CountryCostTable current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onClearingCostsChanged(ClearingCostsChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Reloads all clearing costs and publishes them as the new snapshot.
+     * @return The new snapshot.
+     */
+    public synchronized CountryCostTable refresh() {
+        long start = System.nanoTime();
+        // Read before the costs: a change committed in between is applied again by the next poll
+        Instant lastChange = clearingCostChangeRepository.findLastChangedAt();
+        CountryCostTable rebuilt = CountryCostTable.of(clearingCostRepository.findAll());
+        table = rebuilt;
+        lastChangeAt = lastChange != null ? lastChange : Instant.EPOCH;
+        appliedChangeIds = Set.of();
+        lastSyncNanos = start;
+        log.debug("Clearing cost snapshot rebuilt with {} countries", rebuilt.size());
+        return rebuilt;
+    }
+
+    /**
+     * Applies the changes logged by any replica since the last sync. A replica that could not sync for longer
+     * than {@code pricing.snapshot.change-retention}, whose missed changes may have been pruned, reloads
+     * the whole table instead. Failures are logged and retried on the next poll.
+     */
+    @Scheduled(fixedDelayString = "${pricing.snapshot.poll-interval:PT1S}",
+            initialDelayString = "${pricing.snapshot.poll-interval:PT1S}")
+    public void poll() {
+        if (table == null) {
+            // Not loaded yet: the first reader or the ready event loads everything
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (start - lastSyncNanos > pricingProperties.getSnapshot().getChangeRetention().toNanos()) {
+                refresh();
+            } else {
+                applyChanges(start);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not poll clearing cost changes, snapshot is {} ms old: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSyncNanos), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the countries changed since the last applied change, minus the commit grace period, and swaps in
+     * a table with their new costs. Changes seen by a previous poll are skipped.
+     */
+    private synchronized void applyChanges(long start) {
+        PricingProperties.Snapshot config = pricingProperties.getSnapshot();
+        List<ClearingCostChange> changes = clearingCostChangeRepository
+                .findByChangedAtAfterOrderByChangedAtAsc(lastChangeAt.minus(config.getCommitGrace()));
+        Set<Long> seen = new HashSet<>();
+        Set<String> changedCountries = new HashSet<>();
+        for (ClearingCostChange change : changes) {
+            seen.add(change.getId());
+            if (!appliedChangeIds.contains(change.getId())) {
+                changedCountries.add(change.getCountryCode());
+            }
+            if (change.getChangedAt().isAfter(lastChangeAt)) {
+                lastChangeAt = change.getChangedAt();
+            }
+        }
+
+        if (!changedCountries.isEmpty()) {
+            Map<String, BigDecimal> costs = new HashMap<>();
+            changedCountries.forEach(countryCode -> costs.put(countryCode, null));
+            for (ClearingCost row : clearingCostRepository.findByCountryCodeIn(changedCountries)) {
+                // Same rule as a full load: the first row of a country wins (putIfAbsent replaces null values)
+                costs.putIfAbsent(row.getCountryCode(), row.getCost());
+            }
+            table = table.withCosts(costs);
+            log.debug("Clearing cost snapshot updated for {}", changedCountries);
+        }
+        appliedChangeIds = seen;
+        lastSyncNanos = start;
+    }
+
+    /**
+     * Deletes changes older than {@code pricing.snapshot.change-retention} from the log.
+     */
+    @Scheduled(fixedDelayString = "${pricing.snapshot.change-retention:PT1H}",
+            initialDelayString = "${pricing.snapshot.change-retention:PT1H}")
+    public void pruneChangeLog() {
+        try {
+            Instant lastChange = clearingCostChangeRepository.findLastChangedAt();
+            if (lastChange != null) {
+                int pruned = clearingCostChangeRepository.deleteChangedBefore(
+                        lastChange.minus(pricingProperties.getSnapshot().getChangeRetention()));
+                log.debug("Pruned {} clearing cost changes", pruned);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not prune the clearing cost change log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Time since the snapshot was last known to be up to date.
+     * @return The staleness, or {@code null} if the snapshot was never loaded.
+     */
+    public Duration staleness() {
+        return table != null ? Duration.ofNanos(System.nanoTime() - lastSyncNanos) : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("pricing.snapshot.staleness", this, TimeUnit.NANOSECONDS, snapshot -> {
+                    Duration staleness = snapshot.staleness();
+                    return staleness != null ? staleness.toNanos() : Double.NaN;
+                })
+                .description("Time since the clearing cost snapshot was last synced with the database")
+                .register(registry);
+    }
+}
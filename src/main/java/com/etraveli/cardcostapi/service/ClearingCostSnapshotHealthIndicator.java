@@ -0,0 +1,35 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.PricingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports the clearing cost snapshot out of service once it is older than {@code pricing.snapshot.max-staleness},
+ * e.g. while the database cannot be polled. It is part of the readiness group, so a replica that may be
+ * serving outdated prices stops receiving traffic until it syncs again.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClearingCostSnapshotHealthIndicator implements HealthIndicator {
+
+    private final ClearingCostSnapshot clearingCostSnapshot;
+    private final PricingProperties pricingProperties;
+
+    @Override
+    public Health health() {
+        Duration staleness = clearingCostSnapshot.staleness();
+        Duration maxStaleness = pricingProperties.getSnapshot().getMaxStaleness();
+        if (staleness == null) {
+            return Health.outOfService().withDetail("reason", "not loaded").build();
+        }
+        Health.Builder health = staleness.compareTo(maxStaleness) <= 0 ? Health.up() : Health.outOfService();
+        return health.withDetail("stalenessMillis", staleness.toMillis())
+                .withDetail("maxStalenessMillis", maxStaleness.toMillis())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Prices arbitrarily large card files line by line.
+ * Input lines are either a bare PAN or a JSON object with a {@code cardNumber} field; each result is
+ * written as one NDJSON line, in input order. At most {@code pricing.stream.window} cards are in flight,
+ * so memory use is constant and a slow reader or writer throttles the whole pipeline.
+ */
+@Service
+public class ClearingCostStreamService {
+
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    private final IClearingCostService clearingCostService;
+    private final Executor binLookupExecutor;
+    private final ObjectMapper objectMapper;
+    private final int window;
+
+    public ClearingCostStreamService(IClearingCostService clearingCostService,
+                                     @Qualifier("binLookupExecutor") Executor binLookupExecutor,
+                                     ObjectMapper objectMapper,
+                                     PricingProperties properties) {
+        this.clearingCostService = clearingCostService;
+        this.binLookupExecutor = binLookupExecutor;
+        this.objectMapper = objectMapper;
+        this.window = properties.getStream().getWindow();
+    }
+
+    /**
+     * Reads cards from {@code in} and writes their costs to {@code out} as NDJSON while reading.
+     * @param in The card file, one card per line.
+     * @param out Where the NDJSON results are written.
+     * @throws IOException If reading or writing fails.
+     */
+    public void priceStream(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Deque<CompletableFuture<BatchCostItem>> inFlight = new ArrayDeque<>(window);
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            inFlight.addLast(submit(index++, line));
+            if (inFlight.size() >= window) {
+                write(inFlight.pollFirst().join(), out);
+            }
+            // Drain what is already priced so results flow while the client is still sending
+            while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+                write(inFlight.pollFirst().join(), out);
+            }
+            if (!reader.ready()) {
+                out.flush();
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.pollFirst().join(), out);
+        }
+        out.flush();
+    }
+
+    private CompletableFuture<BatchCostItem> submit(int index, String line) {
+        String cardNumber;
+        try {
+            cardNumber = parseCardNumber(line.trim());
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(BatchCostItem.ofError(index, "Malformed line."));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> clearingCostService.priceCard(index, cardNumber),
+                    binLookupExecutor);
+        } catch (RejectedExecutionException e) {
+            // The executor is shared with other requests: report the card instead of aborting the stream
+            return CompletableFuture.completedFuture(BatchCostItem.ofError(index, IClearingCostService.BUSY_ERROR));
+        }
+    }
+
+    private String parseCardNumber(String line) throws JsonProcessingException {
+        if (line.charAt(0) != '{') {
+            return line;
+        }
+        JsonNode node = objectMapper.readTree(line);
+        return node.path("cardNumber").asText(null);
+    }
+
+    private void write(BatchCostItem item, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(item));
+        out.write(LINE_SEPARATOR);
+    }
+}
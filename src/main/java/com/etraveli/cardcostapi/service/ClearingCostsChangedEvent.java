@@ -0,0 +1,8 @@
+package com.etraveli.cardcostapi.service;
+
+/**
+ * Published whenever clearing costs are created, updated or deleted.
+ * Listeners are notified once the surrounding transaction has committed.
+ */
+public record ClearingCostsChangedEvent() {
+}
@@ -0,0 +1,163 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.entity.ClearingCost;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable pricing table used on the hot path.
+ * An ISO alpha-2 code maps to a slot of a 26×26 array ({@code AA} is 0, {@code ZZ} is 675) holding the cost
+ * as fixed-point minor units (cents), so a lookup is an array read with no hashing and no allocation.
+ * Costs are converted to {@link BigDecimal} only when they leave the service, see {@link #toBigDecimal(long)}.
+ */
+public final class CountryCostTable {
+
+    /** Number of decimal places of a cost, as stored in {@code clearing_cost.cost}. */
+    public static final int SCALE = 2;
+
+    /** Marks a country without a specific entry. */
+    public static final long NO_COST = Long.MIN_VALUE;
+
+    /** Cost applied when neither the country nor OTHER has an entry: 10.00. */
+    public static final long DEFAULT_COST = 1_000L;
+
+    public static final String OTHER_COUNTRY_CODE = "OTHER";
+
+    public static final CountryCostTable EMPTY = of(List.of());
+
+    private static final int LETTERS = 26;
+
+    private final long[] costs;
+    private final long otherCost;
+    private final int size;
+
+    private CountryCostTable(long[] costs, long otherCost, int size) {
+        this.costs = costs;
+        this.otherCost = otherCost;
+        this.size = size;
+    }
+
+    /**
+     * Builds a table from clearing cost rows. When a country appears twice the first row wins,
+     * and codes that are neither alpha-2 nor OTHER are ignored since Binlist never returns them.
+     */
+    public static CountryCostTable of(Collection<ClearingCost> rows) {
+        long[] costs = new long[LETTERS * LETTERS];
+        Arrays.fill(costs, NO_COST);
+        long otherCost = NO_COST;
+        int size = 0;
+        for (ClearingCost row : rows) {
+            String countryCode = row.getCountryCode();
+            if (OTHER_COUNTRY_CODE.equals(countryCode)) {
+                if (otherCost == NO_COST) {
+                    otherCost = toMinorUnits(row.getCost());
+                    size++;
+                }
+                continue;
+            }
+            int index = indexOf(countryCode);
+            if (index >= 0 && costs[index] == NO_COST) {
+                costs[index] = toMinorUnits(row.getCost());
+                size++;
+            }
+        }
+        return new CountryCostTable(costs, otherCost, size);
+    }
+
+    /**
+     * Returns a copy of this table with the costs of some countries replaced; this table is left untouched.
+     * @param changed The new cost of each changed country, or {@code null} for countries that no longer have one.
+     */
+    public CountryCostTable withCosts(Map<String, BigDecimal> changed) {
+        long[] updatedCosts = costs.clone();
+        long updatedOtherCost = otherCost;
+        int updatedSize = size;
+        for (Map.Entry<String, BigDecimal> entry : changed.entrySet()) {
+            long cost = entry.getValue() != null ? toMinorUnits(entry.getValue()) : NO_COST;
+            long previous;
+            if (OTHER_COUNTRY_CODE.equals(entry.getKey())) {
+                previous = updatedOtherCost;
+                updatedOtherCost = cost;
+            } else {
+                int index = indexOf(entry.getKey());
+                if (index < 0) {
+                    continue;
+                }
+                previous = updatedCosts[index];
+                updatedCosts[index] = cost;
+            }
+            if (previous == NO_COST && cost != NO_COST) {
+                updatedSize++;
+            } else if (previous != NO_COST && cost == NO_COST) {
+                updatedSize--;
+            }
+        }
+        return new CountryCostTable(updatedCosts, updatedOtherCost, updatedSize);
+    }
+
+    /**
+     * Returns the cost configured for a country.
+     * @param countryCode The ISO alpha-2 country code.
+     * @return The cost in minor units, or {@link #NO_COST} if the country has no specific entry.
+     */
+    public long cost(String countryCode) {
+        if (OTHER_COUNTRY_CODE.equals(countryCode)) {
+            return otherCost;
+        }
+        int index = indexOf(countryCode);
+        return index >= 0 ? costs[index] : NO_COST;
+    }
+
+    /**
+     * Returns the cost for countries without a specific entry: the OTHER cost, or {@link #DEFAULT_COST}.
+     */
+    public long defaultCost() {
+        return otherCost != NO_COST ? otherCost : DEFAULT_COST;
+    }
+
+    /**
+     * Number of countries with a cost, OTHER included.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether a country code can be priced: an ISO alpha-2 code or OTHER.
+     */
+    public static boolean isSupported(String countryCode) {
+        return OTHER_COUNTRY_CODE.equals(countryCode) || indexOf(countryCode) >= 0;
+    }
+
+    /**
+     * Maps an ISO alpha-2 code to its slot.
+     * @return The slot, or -1 if the code is not two uppercase ASCII letters.
+     */
+    static int indexOf(String countryCode) {
+        if (countryCode == null || countryCode.length() != 2) {
+            return -1;
+        }
+        int first = countryCode.charAt(0) - 'A';
+        int second = countryCode.charAt(1) - 'A';
+        if (first < 0 || first >= LETTERS || second < 0 || second >= LETTERS) {
+            return -1;
+        }
+        return first * LETTERS + second;
+    }
+
+    /**
+     * Converts a cost to minor units, rounding half up any digits beyond {@link #SCALE}.
+     */
+    public static long toMinorUnits(BigDecimal cost) {
+        return cost.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
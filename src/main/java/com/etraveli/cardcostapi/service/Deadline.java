@@ -0,0 +1,96 @@
+package com.etraveli.cardcostapi.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which the caller of the current request expects an answer, so that BIN resolution
+ * does not keep waiting on Binlist for an answer nobody will read.
+ * The deadline of the request being served is bound to its thread, see {@link #current()}; tasks handed over to
+ * other threads carry it along with {@link #propagate(Supplier)}.
+ */
+public final class Deadline {
+
+    /** No deadline: lookups are only bounded by their own timeouts. */
+    public static final Deadline NONE = new Deadline(0, false);
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    /**
+     * Returns the deadline of the request served by the current thread, or {@link #NONE}.
+     */
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * Binds a deadline to the current thread until {@link #clear()}.
+     */
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Time left until the deadline: 0 once it has passed, {@link Long#MAX_VALUE} if there is none.
+     */
+    public long remainingNanos() {
+        return bounded ? Math.max(0, deadlineNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return bounded && remainingNanos() == 0;
+    }
+
+    /**
+     * Shortens a timeout so that it does not run past the deadline.
+     */
+    public Duration cap(Duration timeout) {
+        return bounded ? Duration.ofNanos(Math.min(timeout.toNanos(), remainingNanos())) : timeout;
+    }
+
+    /**
+     * Wraps a task so that it runs with this deadline bound to whichever thread executes it.
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? TimeUnit.NANOSECONDS.toMillis(remainingNanos()) + " ms left" : "none";
+    }
+}
@@ -0,0 +1,17 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of the pricing operations of {@link IClearingCostService}.
+ * Failures complete the returned futures exceptionally with the exceptions the blocking methods would throw.
+ */
+public interface IClearingCostAsyncService {
+    CompletableFuture<BinResolution> resolveBinAsync(String cardNumber);
+    CompletableFuture<ClearingCostResolution> resolveClearingCostAsync(String cardNumber);
+    CompletableFuture<BigDecimal> calculateClearingCostAsync(String cardNumber);
+}
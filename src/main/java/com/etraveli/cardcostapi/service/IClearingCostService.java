@@ -1,18 +1,31 @@
 package com.etraveli.cardcostapi.service;
 
+import com.etraveli.cardcostapi.dto.BatchCostItem;
 import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.dto.ClearingCostImportResult;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
 import com.etraveli.cardcostapi.entity.ClearingCost;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 public interface IClearingCostService {
+    /** Maximum number of countries in a single import. */
+    int MAX_IMPORT_SIZE = 1_000;
+
+    /** Error of the cards of a batch or stream that could not be queued for pricing. */
+    String BUSY_ERROR = "Too many cards are being priced. Please try again later.";
+
     ClearingCost saveClearingCost(ClearingCost clearingCost);
     ClearingCost updateClearingCost(Long id, ClearingCost clearingCost);
     void deleteClearingCost(Long id);
+    ClearingCostImportResult importClearingCosts(List<ClearingCost> clearingCosts, boolean replace);
     boolean isPanValid(String pan);
     List<ClearingCost> findAll();
     ClearingCost findByCountryCode(String countryCode);
     BinlistDto getCountryCodeFromCardNumber(String cardNumber);
     BigDecimal calculateClearingCost(String cardNumber);
+    ClearingCostResolution resolveClearingCost(String cardNumber);
+    List<BatchCostItem> calculateClearingCosts(List<String> cardNumbers);
+    BatchCostItem priceCard(int index, String cardNumber);
 }
@@ -0,0 +1,57 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.dto.BinResolution;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resolves issuing countries offline from a local BIN range file ({@code binlist.local-table.location}).
+ * When no file is configured the table is empty and every lookup falls through to Binlist.
+ */
+@Slf4j
+@Component
+public class LocalBinResolver implements BinResolver {
+
+    private final BinRangeTable table;
+
+    public LocalBinResolver(BinlistProperties properties, ResourceLoader resourceLoader) {
+        this.table = loadTable(properties.getLocalTable().getLocation(), resourceLoader);
+    }
+
+    @Override
+    public BinResolution resolve(String cardNumber) {
+        return resolve(BinRangeTable.binPrefix(cardNumber));
+    }
+
+    /**
+     * Resolves the issuing country of an already extracted BIN, without touching the card number again.
+     * @param binPrefix The numeric 8-digit BIN of a card.
+     * @return The resolved country, or {@code null} if no range contains the BIN.
+     */
+    public BinResolution resolve(long binPrefix) {
+        return table.lookup(binPrefix);
+    }
+
+    private static BinRangeTable loadTable(String location, ResourceLoader resourceLoader) {
+        if (location == null || location.isBlank()) {
+            return BinRangeTable.empty();
+        }
+        Resource resource = resourceLoader.getResource(location);
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            BinRangeTable table = BinRangeTable.load(reader);
+            log.info("Loaded local BIN table from {}: {}", location, table);
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load local BIN table from " + location, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.etraveli.cardcostapi.service;
+
+/**
+ * Allocation-free validation of card numbers (PANs).
+ * Length, digits and the Luhn checksum are verified in a single left-to-right pass, which also
+ * extracts the numeric 8-digit BIN prefix used by the BIN lookups.
+ */
+public final class PanValidator {
+
+    /**
+     * Returned by {@link #validate(CharSequence)} for an invalid card number.
+     */
+    public static final long INVALID = -1L;
+
+    public static final int MIN_LENGTH = 8;
+    public static final int MAX_LENGTH = 19;
+
+    private static final int BIN_DIGITS = 8;
+
+    // Luhn value of a doubled digit: 2d, minus 9 when it has two digits
+    private static final int[] DOUBLED = {0, 2, 4, 6, 8, 1, 3, 5, 7, 9};
+
+    private PanValidator() {
+    }
+
+    /**
+     * Validates a card number and extracts its BIN.
+     * @param pan The card number: 8 to 19 digits passing the Luhn check.
+     * @return The numeric value of the first 8 digits, or {@link #INVALID} if the card number is not valid.
+     */
+    public static long validate(CharSequence pan) {
+        if (pan == null) {
+            return INVALID;
+        }
+        int length = pan.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return INVALID;
+        }
+
+        long bin = 0;
+        int sum = 0;
+        // Counting from the rightmost digit, every second digit is doubled
+        boolean doubled = (length & 1) == 0;
+        for (int i = 0; i < length; i++) {
+            int d = pan.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return INVALID;
+            }
+            if (i < BIN_DIGITS) {
+                bin = bin * 10 + d;
+            }
+            sum += doubled ? DOUBLED[d] : d;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0 ? bin : INVALID;
+    }
+
+    /**
+     * Checks whether a card number has 8 to 19 digits and passes the Luhn check.
+     */
+    public static boolean isValid(CharSequence pan) {
+        return validate(pan) != INVALID;
+    }
+
+    /**
+     * Checks only the format of a card number: 8 to 19 digits.
+     */
+    public static boolean isValidFormat(CharSequence pan) {
+        if (pan == null || pan.length() < MIN_LENGTH || pan.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
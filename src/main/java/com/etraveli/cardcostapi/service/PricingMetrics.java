@@ -0,0 +1,168 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.dto.BinResolution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the pricing hot path, published through Actuator (e.g. {@code /actuator/prometheus}).
+ * <ul>
+ *   <li>{@code pricing.stage}: latency of each stage, tagged {@code stage} = validation, bin_resolution
+ *   (with the {@code source} it was resolved from, or the failure {@code outcome}) and cost_lookup.</li>
+ *   <li>{@code pricing.request}: total time to price a card, tagged by issuing {@code country}.</li>
+ *   <li>{@code pricing.default.cost}: cards priced with the default cost, tagged by {@code reason}.</li>
+ *   <li>{@code binlist.errors}: failed Binlist lookups, tagged by error {@code type}.</li>
+ *   <li>{@code binlist.hedge.lookups}, {@code binlist.hedges} and {@code binlist.hedge.wins}: Binlist lookups that
+ *   could be hedged, second calls sent or skipped for lack of budget ({@code outcome}), and second calls that
+ *   answered first. Their ratios give the hedge rate and the win rate.</li>
+ * </ul>
+ * Tags are kept low-cardinality: country codes and fixed enumerations, never PANs or BINs.
+ * Meters are registered up front or cached, so recording does not allocate on the hot path.
+ */
+@Component
+public class PricingMetrics {
+
+    static final String STAGE_TIMER = "pricing.stage";
+    static final String REQUEST_TIMER = "pricing.request";
+    static final String DEFAULT_COST_COUNTER = "pricing.default.cost";
+    static final String BINLIST_ERROR_COUNTER = "binlist.errors";
+    static final String HEDGE_LOOKUP_COUNTER = "binlist.hedge.lookups";
+    static final String HEDGE_COUNTER = "binlist.hedges";
+    static final String HEDGE_WIN_COUNTER = "binlist.hedge.wins";
+
+    /** Country tag of cards whose issuing country could not be resolved. */
+    static final String NO_COUNTRY = "none";
+
+    private final MeterRegistry registry;
+    private final Timer validationTimer;
+    private final Timer costLookupTimer;
+    private final Map<BinResolution.Source, Timer> binResolutionTimers = new EnumMap<>(BinResolution.Source.class);
+    private final Map<String, Timer> binResolutionFailureTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> defaultCostCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> binlistErrorCounters = new ConcurrentHashMap<>();
+    private final Counter hedgeLookupCounter;
+    private final Counter hedgeSentCounter;
+    private final Counter hedgeSkippedCounter;
+    private final Counter hedgeWinCounter;
+
+    public PricingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.validationTimer = stageTimer("validation", "none", "success");
+        this.costLookupTimer = stageTimer("cost_lookup", "snapshot", "success");
+        for (BinResolution.Source source : BinResolution.Source.values()) {
+            binResolutionTimers.put(source,
+                    stageTimer("bin_resolution", source.name().toLowerCase(), "success"));
+        }
+        this.hedgeLookupCounter = Counter.builder(HEDGE_LOOKUP_COUNTER)
+                .description("Binlist lookups that could be hedged")
+                .register(registry);
+        this.hedgeSentCounter = hedgeCounter("sent");
+        this.hedgeSkippedCounter = hedgeCounter("budget_exhausted");
+        this.hedgeWinCounter = Counter.builder(HEDGE_WIN_COUNTER)
+                .description("Hedged Binlist calls that answered before the first call")
+                .register(registry);
+    }
+
+    public void recordValidation(long startNanos) {
+        validationTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBinResolution(long startNanos, BinResolution.Source source) {
+        binResolutionTimers.get(source).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a BIN resolution that produced no country.
+     * @param outcome Why it failed: {@code not_found}, {@code unavailable} or {@code error}.
+     */
+    public void recordBinResolutionFailure(long startNanos, String outcome) {
+        binResolutionFailureTimers.computeIfAbsent(outcome,
+                        o -> stageTimer("bin_resolution", "none", o))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCostLookup(long startNanos) {
+        costLookupTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the total time spent pricing one card.
+     * @param country The issuing country, or {@code null} if it could not be resolved.
+     */
+    public void recordRequest(long startNanos, String country) {
+        requestTimers.computeIfAbsent(country != null ? country : NO_COUNTRY, c -> Timer.builder(REQUEST_TIMER)
+                        .description("Total time to price a card")
+                        .tag("country", c)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a card priced with the default (OTHER) cost.
+     * @param reason {@code no_country_cost} when its country has no entry, {@code binlist_unavailable}
+     * when it was priced in degraded mode without a known country.
+     */
+    public void defaultCostUsed(String reason) {
+        defaultCostCounters.computeIfAbsent(reason, r -> Counter.builder(DEFAULT_COST_COUNTER)
+                        .description("Cards priced with the default cost")
+                        .tag("reason", r)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Counts a failed Binlist lookup.
+     * @param type The kind of failure, e.g. {@code timeout}, {@code http_5xx} or {@code circuit_open}.
+     */
+    public void binlistError(String type) {
+        binlistErrorCounters.computeIfAbsent(type, t -> Counter.builder(BINLIST_ERROR_COUNTER)
+                        .description("Failed Binlist lookups")
+                        .tag("type", t)
+                        .register(registry))
+                .increment();
+    }
+
+    public void hedgeableLookup() {
+        hedgeLookupCounter.increment();
+    }
+
+    /**
+     * Counts a lookup whose first Binlist call was slow enough to hedge.
+     * @param sent Whether the second call was sent, or skipped because the hedging budget was exhausted.
+     */
+    public void hedge(boolean sent) {
+        (sent ? hedgeSentCounter : hedgeSkippedCounter).increment();
+    }
+
+    public void hedgeWon() {
+        hedgeWinCounter.increment();
+    }
+
+    private Counter hedgeCounter(String outcome) {
+        return Counter.builder(HEDGE_COUNTER)
+                .description("Second Binlist calls of slow lookups")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage, String source, String outcome) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Latency of each stage of pricing a card")
+                .tag("stage", stage)
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.etraveli.cardcostapi.service;
+
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JSON bodies of single-card pricing responses, serialized once per country and written as is afterwards.
+ * A response only depends on the country and its cost, so every card of a country gets the same bytes.
+ * Bodies belong to the {@link CountryCostTable} they were priced from: since the {@link ClearingCostSnapshot}
+ * swaps in a new table on every cost change, the bodies of the previous table are dropped with it.
+ * Degraded responses, and responses priced from an older table than the current one, are serialized every time.
+ */
+@Component
+public class PricingResponseCache {
+
+    private static final int SLOTS = 26 * 26;
+
+    private final ObjectWriter writer;
+    private final ClearingCostSnapshot clearingCostSnapshot;
+
+    private volatile Bodies bodies;
+
+    public PricingResponseCache(ObjectMapper objectMapper, ClearingCostSnapshot clearingCostSnapshot) {
+        this.writer = objectMapper.writerFor(BinlistDto.BinlistResponseWithCost.class);
+        this.clearingCostSnapshot = clearingCostSnapshot;
+    }
+
+    /**
+     * Returns the JSON body of the response to a priced card.
+     * @param resolution The country and cost of the card.
+     * @return The serialized {@link BinlistDto.BinlistResponseWithCost}; callers must not modify it.
+     */
+    public byte[] body(ClearingCostResolution resolution) {
+        int index = CountryCostTable.indexOf(resolution.getCountry());
+        if (index < 0 || resolution.isDegraded()) {
+            return serialize(resolution);
+        }
+        CountryCostTable table = clearingCostSnapshot.table();
+        long cost = table.cost(resolution.getCountry());
+        if (resolution.getCostMinorUnits() != (cost != CountryCostTable.NO_COST ? cost : table.defaultCost())) {
+            return serialize(resolution);
+        }
+
+        Bodies current = bodies;
+        if (current == null || current.table != table) {
+            current = new Bodies(table);
+            bodies = current;
+        }
+        byte[] body = current.json.get(index);
+        if (body == null) {
+            body = serialize(resolution);
+            current.json.set(index, body);
+        }
+        return body;
+    }
+
+    private byte[] serialize(ClearingCostResolution resolution) {
+        try {
+            return writer.writeValueAsBytes(resolution.toResponse());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the clearing cost of " + resolution.getCountry(), e);
+        }
+    }
+
+    /**
+     * Bodies serialized from one table, by country slot.
+     */
+    private static final class Bodies {
+        final CountryCostTable table;
+        final AtomicReferenceArray<byte[]> json = new AtomicReferenceArray<>(SLOTS);
+
+        Bodies(CountryCostTable table) {
+            this.table = table;
+        }
+    }
+}
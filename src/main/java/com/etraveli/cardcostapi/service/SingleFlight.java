@@ -0,0 +1,118 @@
+package com.etraveli.cardcostapi.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls for the same key: the first caller runs the call and every caller
+ * arriving while it is in flight waits for and shares its outcome, value or exception.
+ * @param <K> The key type.
+ * @param <V> The result type.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call} for {@code key} unless a call for the same key is already in flight,
+     * in which case its result is returned instead.
+     * @param key The deduplication key.
+     * @param call The call to run.
+     * @return The result of the call run for the key.
+     */
+    public V execute(K key, Supplier<V> call) {
+        return execute(key, call, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Variant of {@link #execute(Object, Supplier)} that waits at most {@code maxWaitNanos} for a call already in
+     * flight, so that a caller never waits on a call that cannot make progress, e.g. one queued behind it.
+     * The call run by the caller itself is not bounded.
+     * @param key The deduplication key.
+     * @param call The call to run.
+     * @param maxWaitNanos How long to wait for a call already in flight; {@link Long#MAX_VALUE} waits for as long
+     * as it takes.
+     * @param timeout Creates the exception thrown when the call in flight does not complete in time.
+     * @return The result of the call run for the key.
+     */
+    public V execute(K key, Supplier<V> call, long maxWaitNanos, Supplier<? extends RuntimeException> timeout) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing, maxWaitNanos, timeout);
+        }
+        try {
+            V value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #execute}: starts {@code call} for {@code key} unless a call for the same key,
+     * synchronous or not, is already in flight, and never blocks.
+     * @param key The deduplication key.
+     * @param call Starts the call and returns its pending result.
+     * @return The pending result of the call run for the key.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            call.get().whenComplete((value, failure) -> {
+                inFlight.remove(key, flight);
+                if (failure != null) {
+                    flight.completeExceptionally(failure);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight;
+    }
+
+    /**
+     * Number of keys with a call currently in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight, long maxWaitNanos,
+                               Supplier<? extends RuntimeException> timeout) {
+        try {
+            return maxWaitNanos == Long.MAX_VALUE ? flight.join() : flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        } catch (TimeoutException e) {
+            throw timeout.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timeout.get();
+        }
+    }
+}
@@ -1,3 +1,4 @@
+-- Sample clearing costs for local development
 INSERT INTO clearing_cost (country_code, cost) VALUES ('US', 5.00);
 INSERT INTO clearing_cost (country_code, cost) VALUES ('GR', 15.00);
 INSERT INTO clearing_cost (country_code, cost) VALUES ('OTHER', 10.00);
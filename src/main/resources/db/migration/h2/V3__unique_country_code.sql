@@ -0,0 +1,6 @@
+-- A country has at most one clearing cost: keep the oldest row of each country, then enforce it.
+-- The constraint's index also serves lookups by country code
+DELETE FROM clearing_cost c
+WHERE EXISTS (SELECT 1 FROM clearing_cost d WHERE d.country_code = c.country_code AND d.id < c.id);
+
+ALTER TABLE clearing_cost ADD CONSTRAINT uk_clearing_cost_country_code UNIQUE (country_code);
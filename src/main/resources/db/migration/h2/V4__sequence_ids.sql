@@ -0,0 +1,6 @@
+-- Ids come from a sequence allocated 50 at a time, so that Hibernate can batch inserts.
+-- It starts past the existing ids, as Hibernate takes the 50 ids below each value it reads
+CREATE SEQUENCE clearing_cost_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE clearing_cost_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM clearing_cost);
+ALTER TABLE clearing_cost ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE clearing_cost ALTER COLUMN id SET DEFAULT NEXT VALUE FOR clearing_cost_seq;
@@ -0,0 +1,9 @@
+-- Change log of clearing_cost: one row per country whose cost was created, updated or deleted.
+-- Every replica polls it to refresh only the changed countries of its in-memory snapshot
+CREATE SEQUENCE clearing_cost_change_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE clearing_cost_change(
+    id           BIGINT DEFAULT NEXT VALUE FOR clearing_cost_change_seq PRIMARY KEY,
+    country_code VARCHAR(5) NOT NULL,
+    changed_at   TIMESTAMP  DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_clearing_cost_change_changed_at ON clearing_cost_change(changed_at);
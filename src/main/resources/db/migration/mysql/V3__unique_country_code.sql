@@ -0,0 +1,6 @@
+-- A country has at most one clearing cost: keep the oldest row of each country, then enforce it.
+-- The constraint's index also serves lookups by country code (the sample data of V2 is H2 only)
+DELETE c FROM clearing_cost c
+JOIN clearing_cost d ON d.country_code = c.country_code AND d.id < c.id;
+
+ALTER TABLE clearing_cost ADD CONSTRAINT uk_clearing_cost_country_code UNIQUE (country_code);
@@ -0,0 +1,8 @@
+-- MySQL has no sequences: Hibernate emulates them with single-row tables holding the next value.
+-- Ids are allocated 50 at a time, so that Hibernate can batch inserts. The next value starts past
+-- the existing ids, as Hibernate takes the 50 ids below each value it reads
+CREATE TABLE clearing_cost_seq(
+    next_val BIGINT NOT NULL
+);
+INSERT INTO clearing_cost_seq SELECT COALESCE(MAX(id), 0) + 50 FROM clearing_cost;
+ALTER TABLE clearing_cost MODIFY id BIGINT NOT NULL;
@@ -0,0 +1,6 @@
+-- Persistent (L2) BIN cache shared by all replicas: issuing country of each 8-digit BIN resolved by Binlist
+CREATE TABLE bin_country(
+    bin          VARCHAR(8) PRIMARY KEY,
+    country_code VARCHAR(5) NOT NULL,
+    resolved_at  TIMESTAMP  NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Change log of clearing_cost: one row per country whose cost was created, updated or deleted.
+-- Every replica polls it to refresh only the changed countries of its in-memory snapshot
+CREATE TABLE clearing_cost_change_seq(
+    next_val BIGINT NOT NULL
+);
+INSERT INTO clearing_cost_change_seq VALUES (1);
+CREATE TABLE clearing_cost_change(
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    country_code VARCHAR(5)   NOT NULL,
+    changed_at   TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+CREATE INDEX idx_clearing_cost_change_changed_at ON clearing_cost_change(changed_at);
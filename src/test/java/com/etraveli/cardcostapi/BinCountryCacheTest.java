@@ -0,0 +1,54 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.service.BinCountryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinCountryCacheTest {
+
+    private BinCountryCache binCountryCache;
+
+    @BeforeEach
+    public void setUp() {
+        binCountryCache = new BinCountryCache(new BinlistProperties());
+    }
+
+    @Test
+    public void testCacheIsKeyedByBinPrefix() {
+        binCountryCache.put("4571736000000001", "DK");
+
+        assertEquals("DK", binCountryCache.getIfPresent("45717360"));
+        assertEquals("DK", binCountryCache.getIfPresent("4571736099999999"));
+        assertNull(binCountryCache.getIfPresent("45717361"));
+    }
+
+    @Test
+    public void testNegativeCaching() {
+        binCountryCache.putUnknown("12345674");
+
+        assertTrue(BinCountryCache.isUnknown(binCountryCache.getIfPresent("12345674")));
+    }
+
+    @Test
+    public void testRejectsBinsOfUnexpectedLength() {
+        assertThrows(IllegalArgumentException.class, () -> binCountryCache.putBin("4571", "DK"));
+        assertThrows(IllegalArgumentException.class, () -> binCountryCache.putBin("457173", "DK"));
+    }
+
+    @Test
+    public void testRecordsHitsAndMisses() {
+        binCountryCache.put("45717360", "DK");
+
+        binCountryCache.getIfPresent("45717360");
+        binCountryCache.getIfPresent("40000000");
+
+        assertEquals(1, binCountryCache.stats().hitCount());
+        assertEquals(1, binCountryCache.stats().missCount());
+    }
+}
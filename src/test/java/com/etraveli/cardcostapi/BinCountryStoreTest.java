@@ -0,0 +1,87 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.entity.BinCountry;
+import com.etraveli.cardcostapi.repository.BinCountryRepository;
+import com.etraveli.cardcostapi.service.BinCountryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class BinCountryStoreTest {
+
+    @Mock
+    private BinCountryRepository binCountryRepository;
+
+    private BinlistProperties properties;
+
+    private BinCountryStore binCountryStore;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new BinlistProperties();
+        properties.getStore().setBatchSize(2);
+        binCountryStore = new BinCountryStore(binCountryRepository, properties);
+    }
+
+    @Test
+    public void testFindIgnoresRowsOlderThanTtl() {
+        when(binCountryRepository.findById("45717360"))
+                .thenReturn(Optional.of(new BinCountry("45717360", "DK", Instant.now().minus(Duration.ofDays(1)))));
+        when(binCountryRepository.findById("41111111"))
+                .thenReturn(Optional.of(new BinCountry("41111111", "US", Instant.now().minus(Duration.ofDays(60)))));
+
+        assertEquals("DK", binCountryStore.find("45717360"));
+        assertNull(binCountryStore.find("41111111"));
+        assertEquals("US", binCountryStore.findStale("41111111"));
+    }
+
+    @Test
+    public void testSavesAreWrittenInBatchesOnFlush() {
+        binCountryStore.save("45717360", "DK");
+        binCountryStore.save("41111111", "US");
+        binCountryStore.save("52000000", "GR");
+        binCountryStore.save("45717360", "DK");
+        verifyNoInteractions(binCountryRepository);
+        assertEquals(3, binCountryStore.pendingWrites());
+
+        binCountryStore.flush();
+        verify(binCountryRepository, times(2)).saveBatch(anyList());
+        assertEquals(0, binCountryStore.pendingWrites());
+    }
+
+    @Test
+    public void testDatabaseFailuresAreTreatedAsMisses() {
+        when(binCountryRepository.findById(anyString())).thenThrow(new DataAccessResourceFailureException("down"));
+        doThrow(new DataAccessResourceFailureException("down")).when(binCountryRepository).saveBatch(anyList());
+
+        assertNull(binCountryStore.find("45717360"));
+        binCountryStore.save("45717360", "DK");
+        binCountryStore.flush();
+        assertEquals(0, binCountryStore.pendingWrites());
+    }
+
+    @Test
+    public void testDisabledStoreNeverTouchesTheTable() {
+        properties.getStore().setEnabled(false);
+
+        assertNull(binCountryStore.find("45717360"));
+        binCountryStore.save("45717360", "DK");
+        binCountryStore.flush();
+        verifyNoInteractions(binCountryRepository);
+    }
+}
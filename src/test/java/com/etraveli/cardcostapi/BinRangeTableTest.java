@@ -0,0 +1,62 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.service.BinRangeTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinRangeTableTest {
+
+    private static final String RANGES = """
+            # low,high,country
+            457173,457173,DK
+            40000000,40999999,US
+            51,52,GR
+            """;
+
+    @Test
+    public void testLookupFindsContainingRange() throws IOException {
+        BinRangeTable table = BinRangeTable.load(new StringReader(RANGES));
+
+        assertEquals(3, table.size());
+        assertEquals("DK", table.lookup(BinRangeTable.binPrefix("4571736000000001")).getCountry());
+        assertEquals("US", table.lookup(40500000L).getCountry());
+        assertEquals("GR", table.lookup(52999999L).getCountry());
+        assertEquals(BinResolution.Source.LOCAL_TABLE, table.lookup(51000000L).getSource());
+    }
+
+    @Test
+    public void testLookupMissesOutsideRanges() throws IOException {
+        BinRangeTable table = BinRangeTable.load(new StringReader(RANGES));
+
+        assertNull(table.lookup(39999999L));
+        assertNull(table.lookup(45717400L));
+        assertNull(table.lookup(53000000L));
+        assertNull(BinRangeTable.empty().lookup(45717360L));
+    }
+
+    @Test
+    public void testLookupReusesResolutions() throws IOException {
+        BinRangeTable table = BinRangeTable.load(new StringReader(RANGES));
+
+        assertSame(table.lookup(40000000L), table.lookup(40999999L));
+    }
+
+    @Test
+    public void testRejectsOverlappingRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BinRangeTable.load(new StringReader("400000,409999,US\n405000,405000,GR\n")));
+    }
+
+    @Test
+    public void testBinPrefix() {
+        assertEquals(45717360L, BinRangeTable.binPrefix("4571736012345678"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.service.BinlistHedging;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinlistHedgingTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testDelayIsThePercentileOfRecentLatencies() {
+        BinlistProperties properties = new BinlistProperties();
+        properties.getHedging().setDelayPercentile(0.9);
+        properties.getHedging().setMinDelay(Duration.ofMillis(5));
+        BinlistHedging hedging = new BinlistHedging(properties);
+        assertEquals(5 * MILLIS, hedging.delayNanos());
+
+        // 1 to 100 ms, three times over
+        for (int i = 0; i < 300; i++) {
+            hedging.recordLatency((i % 100 + 1) * MILLIS);
+        }
+        assertEquals(90 * MILLIS, hedging.delayNanos(), 5 * MILLIS);
+
+        // Fast calls only: never below the minimum delay
+        for (int i = 0; i < 256; i++) {
+            hedging.recordLatency(MILLIS);
+        }
+        assertEquals(5 * MILLIS, hedging.delayNanos());
+    }
+
+    @Test
+    public void testHedgesAreLimitedToTheBudget() {
+        BinlistProperties properties = new BinlistProperties();
+        properties.getHedging().setBudgetRatio(0.5);
+        properties.getHedging().setMaxBudget(2);
+        BinlistHedging hedging = new BinlistHedging(properties);
+
+        assertTrue(hedging.tryHedge());
+        assertTrue(hedging.tryHedge());
+        assertFalse(hedging.tryHedge());
+
+        // Two first calls earn one hedge
+        hedging.onFirstCall();
+        assertFalse(hedging.tryHedge());
+        hedging.onFirstCall();
+        assertTrue(hedging.tryHedge());
+
+        // Savings are capped
+        for (int i = 0; i < 100; i++) {
+            hedging.onFirstCall();
+        }
+        assertTrue(hedging.tryHedge());
+        assertTrue(hedging.tryHedge());
+        assertFalse(hedging.tryHedge());
+    }
+}
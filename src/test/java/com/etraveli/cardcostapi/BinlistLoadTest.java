@@ -0,0 +1,138 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.RestTemplateConfig;
+import com.etraveli.cardcostapi.service.BinCountryCache;
+import com.etraveli.cardcostapi.service.BinCountryStore;
+import com.etraveli.cardcostapi.service.BinlistAsyncClient;
+import com.etraveli.cardcostapi.service.BinlistHedging;
+import com.etraveli.cardcostapi.service.BinlistRateLimiter;
+import com.etraveli.cardcostapi.service.BinlistService;
+import com.etraveli.cardcostapi.service.PricingMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares BIN lookup throughput on a fixed platform-thread pool and on virtual threads
+ * against a stub Binlist that answers every request after a fixed delay.
+ * Lookups go through the production Binlist client ({@link RestTemplateConfig}: pooled connections and the
+ * {@code binlist.api.*} timeouts) and the default {@code binlist.api.max-concurrent-calls} bulkhead, so virtual
+ * threads are only expected to win up to that limit.
+ * Both throughputs are logged; the test only checks that virtual threads come out ahead, which holds on a shared
+ * machine since the platform pool is capped at {@value #PLATFORM_THREADS} lookups in flight.
+ * Run with {@code mvn -Pjava21,load-test test -Dtest=BinlistLoadTest}.
+ */
+@Tag("load")
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class BinlistLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BinlistLoadTest.class);
+
+    private static final int STUB_DELAY_MILLIS = 100;
+    private static final int LOOKUPS = 400;
+    private static final int PLATFORM_THREADS = 16;
+
+    private HttpServer stubBinlist;
+    private ExecutorService stubExecutor;
+
+    @BeforeEach
+    public void startStubBinlist() throws IOException {
+        stubExecutor = Executors.newCachedThreadPool();
+        stubBinlist = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubBinlist.setExecutor(stubExecutor);
+        stubBinlist.createContext("/", exchange -> {
+            try {
+                Thread.sleep(STUB_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"country\":{\"alpha2\":\"DK\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubBinlist.start();
+    }
+
+    @AfterEach
+    public void stopStubBinlist() {
+        stubBinlist.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testVirtualThreadsOutperformPlatformPoolOnSlowBinlist() {
+        ExecutorService platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("bin-lookup-");
+        virtualThreads.setVirtualThreads(true);
+        try {
+            double platformThroughput = lookupsPerSecond(platformPool);
+            double virtualThroughput = lookupsPerSecond(virtualThreads);
+            log.info("BIN lookups/s with a {} ms Binlist: platform pool ({} threads) {}, virtual threads {}",
+                    STUB_DELAY_MILLIS, PLATFORM_THREADS, Math.round(platformThroughput), Math.round(virtualThroughput));
+            assertTrue(virtualThroughput > platformThroughput,
+                    "virtual threads " + virtualThroughput + "/s, platform pool " + platformThroughput + "/s");
+        } finally {
+            platformPool.shutdownNow();
+        }
+    }
+
+    private double lookupsPerSecond(Executor executor) {
+        BinlistProperties properties = new BinlistProperties();
+        properties.getApi().setBaseUrl("http://localhost:" + stubBinlist.getAddress().getPort());
+        properties.getStore().setEnabled(false);
+        properties.getRateLimit().setEnabled(false);
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("binlist");
+        PricingMetrics pricingMetrics = new PricingMetrics(new SimpleMeterRegistry());
+        BinlistRateLimiter rateLimiter = new BinlistRateLimiter(properties);
+        RestTemplateConfig restTemplateConfig = new RestTemplateConfig();
+        try (PoolingHttpClientConnectionManager connectionManager =
+                     restTemplateConfig.binlistConnectionManager(properties)) {
+            RestTemplate restTemplate = restTemplateConfig.binlistRestTemplate(connectionManager, properties);
+            BinlistService binlistService = new BinlistService(restTemplate, properties,
+                    new BinCountryCache(properties), new BinCountryStore(null, properties), circuitBreaker,
+                    pricingMetrics, new BinlistAsyncClient(HttpClient.newHttpClient(), new ObjectMapper(), properties,
+                            circuitBreaker, pricingMetrics, rateLimiter), executor, rateLimiter,
+                    new BinlistHedging(properties));
+
+            long start = System.nanoTime();
+            List<CompletableFuture<?>> lookups = new ArrayList<>(LOOKUPS);
+            for (int i = 0; i < LOOKUPS; i++) {
+                // Distinct BINs so that every lookup reaches the stub
+                String bin = String.valueOf(40_000_000 + i);
+                lookups.add(CompletableFuture.runAsync(() -> binlistService.resolve(bin), executor));
+            }
+            CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).join();
+            return LOOKUPS / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.service.BinlistRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinlistRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_WAIT = SECOND;
+
+    private long now = 1_000 * SECOND;
+
+    private BinlistRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        BinlistProperties properties = new BinlistProperties();
+        // 10 calls per second, in bursts of up to 3
+        properties.getRateLimit().setLimitForPeriod(10);
+        properties.getRateLimit().setLimitRefreshPeriod(Duration.ofSeconds(1));
+        properties.getRateLimit().setBurst(3);
+        properties.getRateLimit().setMinRateFraction(0.25);
+        rateLimiter = new BinlistRateLimiter(properties) {
+            @Override
+            protected long nanoTime() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void testLetsABurstThroughThenPacesCalls() {
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(SECOND / 10, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(2 * SECOND / 10, rateLimiter.reserve(MAX_WAIT));
+
+        // Idle long enough for the bucket to fill up again
+        now += SECOND;
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(SECOND / 10, rateLimiter.reserve(MAX_WAIT));
+    }
+
+    @Test
+    public void testRejectsCallsThatAreNotDueWithinTheMaximumWait() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.reserve(0);
+        }
+        assertEquals(-1, rateLimiter.reserve(0));
+        // A rejected call reserves nothing
+        assertEquals(SECOND / 10, rateLimiter.reserve(MAX_WAIT));
+    }
+
+    @Test
+    public void testRateLimitedAnswerPausesAndSlowsDownCalls() {
+        rateLimiter.onRateLimited("2");
+
+        assertEquals(5.0, rateLimiter.rate(), 0.001);
+        assertEquals(-1, rateLimiter.reserve(MAX_WAIT));
+        now += 2 * SECOND;
+        // No burst after the pause, one call every 200 ms
+        assertEquals(0, rateLimiter.reserve(MAX_WAIT));
+        assertEquals(SECOND / 5, rateLimiter.reserve(MAX_WAIT));
+    }
+
+    @Test
+    public void testRateRecoversOnSuccessAndNeverDropsBelowTheMinimum() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onRateLimited(null);
+        }
+        assertEquals(2.5, rateLimiter.rate(), 0.001);
+
+        for (int i = 0; i < 200; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertEquals(10.0, rateLimiter.rate(), 0.001);
+    }
+
+    @Test
+    public void testMissingOrInvalidRetryAfterUsesTheDefaultBackoff() {
+        rateLimiter.onRateLimited("soon");
+
+        now += SECOND - 1;
+        assertEquals(1, rateLimiter.reserve(MAX_WAIT));
+    }
+}
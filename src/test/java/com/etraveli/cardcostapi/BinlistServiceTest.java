@@ -0,0 +1,328 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.ResilienceConfig;
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.exception.BinlistUnavailableException;
+import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import com.etraveli.cardcostapi.service.BinCountryCache;
+import com.etraveli.cardcostapi.service.BinlistAsyncClient;
+import com.etraveli.cardcostapi.service.BinCountryStore;
+import com.etraveli.cardcostapi.service.BinlistHedging;
+import com.etraveli.cardcostapi.service.BinlistRateLimiter;
+import com.etraveli.cardcostapi.service.BinlistService;
+import com.etraveli.cardcostapi.service.Deadline;
+import com.etraveli.cardcostapi.service.PricingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BinlistServiceTest {
+
+    private static final String BINLIST_URL = "https://lookup.binlist.net/45717360";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private BinCountryStore binCountryStore;
+
+    @Mock
+    private BinlistAsyncClient binlistAsyncClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BinlistService binlistService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        BinlistProperties properties = new BinlistProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(2);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(2);
+        binlistService = binlistService(properties);
+    }
+
+    private BinlistService binlistService(BinlistProperties properties) {
+        return binlistService(properties, Runnable::run);
+    }
+
+    private BinlistService binlistService(BinlistProperties properties, Executor binStoreExecutor) {
+        return new BinlistService(restTemplate, properties, new BinCountryCache(properties),
+                binCountryStore, new ResilienceConfig().binlistCircuitBreaker(properties), new PricingMetrics(meterRegistry),
+                binlistAsyncClient, binStoreExecutor, new BinlistRateLimiter(properties), new BinlistHedging(properties));
+    }
+
+    private BinlistService hedgedBinlistService(int maxBudget) {
+        BinlistProperties properties = new BinlistProperties();
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinDelay(Duration.ofMillis(10));
+        properties.getHedging().setBudgetRatio(0);
+        properties.getHedging().setMaxBudget(maxBudget);
+        return binlistService(properties);
+    }
+
+    @Test
+    public void testResolveSendsOnlyTheBinAndCachesTheCountry() {
+        when(restTemplate.getForEntity(BINLIST_URL, BinlistDto.class))
+                .thenReturn(ResponseEntity.ok(BinlistDto.ofCountry("DK")));
+
+        BinResolution first = binlistService.resolve("4571736000000000");
+        BinResolution second = binlistService.resolve("45717360");
+
+        assertEquals("DK", first.getCountry());
+        assertEquals(BinResolution.Source.REMOTE, first.getSource());
+        assertEquals(BinResolution.Source.CACHE, second.getSource());
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(BinlistDto.class));
+        verify(binCountryStore, times(1)).save("45717360", "DK");
+    }
+
+    @Test
+    public void testResolveUsesStoredCountryBeforeCallingBinlist() {
+        when(binCountryStore.find("45717360")).thenReturn("DK");
+
+        BinResolution first = binlistService.resolve("4571736000000000");
+        BinResolution second = binlistService.resolve("45717360");
+
+        assertEquals("DK", first.getCountry());
+        assertEquals(BinResolution.Source.STORE, first.getSource());
+        assertEquals(BinResolution.Source.CACHE, second.getSource());
+        verify(binCountryStore, times(1)).find("45717360");
+        verify(binCountryStore, never()).save(anyString(), anyString());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    public void testUnknownBinsAreCachedNegatively() {
+        when(restTemplate.getForEntity(BINLIST_URL, BinlistDto.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found",
+                        new HttpHeaders(), new byte[0], StandardCharsets.UTF_8));
+
+        assertThrows(ResourceNotFoundException.class, () -> binlistService.resolve("45717360"));
+        assertThrows(ResourceNotFoundException.class, () -> binlistService.resolve("45717360"));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(BinlistDto.class));
+    }
+
+    @Test
+    public void testConcurrentMissesForTheSameBinCallBinlistOnce() throws Exception {
+        when(restTemplate.getForEntity(BINLIST_URL, BinlistDto.class)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return ResponseEntity.ok(BinlistDto.ofCountry("DK"));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<CompletableFuture<BinResolution>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> binlistService.resolve("45717360"), executor));
+            }
+            for (CompletableFuture<BinResolution> result : results) {
+                assertEquals("DK", result.get(5, TimeUnit.SECONDS).getCountry());
+            }
+            verify(restTemplate, times(1)).getForEntity(anyString(), eq(BinlistDto.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOpenCircuitFailsFastWithoutCallingBinlist() {
+        when(restTemplate.getForEntity(anyString(), eq(BinlistDto.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("45717360"));
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("41111111"));
+        // Both calls failed, so the breaker is now open
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("52000000"));
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(BinlistDto.class));
+        assertEquals(2, meterRegistry.counter("binlist.errors", "type", "io").count());
+        assertEquals(1, meterRegistry.counter("binlist.errors", "type", "circuit_open").count());
+    }
+
+    @Test
+    public void testRateLimitedAnswerHoldsBackFurtherCallsWithoutOpeningTheCircuit() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        when(restTemplate.getForEntity(anyString(), eq(BinlistDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        headers, new byte[0], StandardCharsets.UTF_8));
+
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("45717360"));
+        // Retry-After is longer than binlist.rate-limit.max-wait: further lookups fall back without calling Binlist
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("41111111"));
+        assertThrows(BinlistUnavailableException.class, () -> binlistService.resolve("52000000"));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(BinlistDto.class));
+        assertEquals(1, meterRegistry.counter("binlist.errors", "type", "rate_limited").count());
+        assertEquals(2, meterRegistry.counter("binlist.errors", "type", "throttled").count());
+        assertEquals(0, meterRegistry.find("binlist.errors").tag("type", "circuit_open").counters().size());
+    }
+
+    @Test
+    public void testRateLimitWaitStopsAtTheDeadline() {
+        BinlistProperties properties = new BinlistProperties();
+        properties.getRateLimit().setLimitForPeriod(1);
+        properties.getRateLimit().setBurst(1);
+        properties.getRateLimit().setLimitRefreshPeriod(Duration.ofSeconds(5));
+        properties.getRateLimit().setMaxWait(Duration.ofSeconds(10));
+        BinlistService paced = binlistService(properties);
+        when(restTemplate.getForEntity(anyString(), eq(BinlistDto.class)))
+                .thenReturn(ResponseEntity.ok(BinlistDto.ofCountry("DK")));
+        paced.resolve("45717360");
+
+        long start = System.nanoTime();
+        try {
+            // The next call is due in 5 s, well within max-wait but not within the deadline
+            Deadline.set(Deadline.after(Duration.ofMillis(200)));
+            assertThrows(BinlistUnavailableException.class, () -> paced.resolve("41111111"));
+        } finally {
+            Deadline.clear();
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(BinlistDto.class));
+        assertEquals(1, meterRegistry.counter("binlist.errors", "type", "deadline").count());
+    }
+
+    @Test
+    public void testResolveAsyncUsesTheNonBlockingClientAndCachesTheCountry() throws Exception {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(binlistAsyncClient.fetchCountry(eq("45717360"), any())).thenReturn(pending);
+
+        CompletableFuture<BinResolution> first = binlistService.resolveAsync("4571736000000000");
+        CompletableFuture<BinResolution> second = binlistService.resolveAsync("45717360");
+        assertFalse(first.isDone());
+        pending.complete("DK");
+
+        assertEquals(BinResolution.Source.REMOTE, first.get(5, TimeUnit.SECONDS).getSource());
+        assertEquals("DK", second.get(5, TimeUnit.SECONDS).getCountry());
+        assertEquals(BinResolution.Source.CACHE, binlistService.resolveAsync("45717360").join().getSource());
+        verify(binlistAsyncClient, times(1)).fetchCountry(anyString(), any());
+        verify(binCountryStore, times(1)).save("45717360", "DK");
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    public void testResolveAsyncFailsForUnknownBins() {
+        when(binlistAsyncClient.fetchCountry(eq("45717360"), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> binlistService.resolveAsync("45717360").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        assertTrue(binlistService.resolveAsync("45717360").isCompletedExceptionally());
+        verify(binlistAsyncClient, times(1)).fetchCountry(anyString(), any());
+    }
+
+    @Test
+    public void testResolveAsyncFailsAsUnavailableWhenTheStoreReadIsRejected() {
+        BinlistService busy = binlistService(new BinlistProperties(), task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> busy.resolveAsync("45717360").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BinlistUnavailableException.class, failure.getCause());
+        assertEquals(1, meterRegistry.counter("binlist.errors", "type", "rejected").count());
+        verifyNoInteractions(binlistAsyncClient);
+    }
+
+    @Test
+    public void testBlockingCallerJoiningAStuckLookupGivesUpAtItsDeadline() {
+        // The store read of the non-blocking lookup never runs, as if queued behind the caller
+        BinlistService stuck = binlistService(new BinlistProperties(), task -> { });
+        CompletableFuture<BinResolution> pending = stuck.resolveAsync("45717360");
+
+        try {
+            Deadline.set(Deadline.after(Duration.ofMillis(200)));
+            assertThrows(BinlistUnavailableException.class, () -> stuck.resolve("4571736000000000"));
+        } finally {
+            Deadline.clear();
+        }
+
+        assertFalse(pending.isDone());
+        assertEquals(1, meterRegistry.counter("binlist.errors", "type", "deadline").count());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    public void testSlowLookupIsHedgedAndTheFirstAnswerWins() throws Exception {
+        BinlistService hedged = hedgedBinlistService(10);
+        when(binlistAsyncClient.fetchCountry(eq("45717360"), any()))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.completedFuture("DK"));
+
+        BinResolution resolution = hedged.resolveAsync("45717360").get(5, TimeUnit.SECONDS);
+
+        assertEquals("DK", resolution.getCountry());
+        verify(binlistAsyncClient, times(2)).fetchCountry(anyString(), any());
+        assertEquals(1, meterRegistry.counter("binlist.hedge.lookups").count());
+        assertEquals(1, meterRegistry.counter("binlist.hedges", "outcome", "sent").count());
+        assertEquals(1, meterRegistry.counter("binlist.hedge.wins").count());
+    }
+
+    @Test
+    public void testLookupsGiveUpAtTheDeadlineAndHedgeWithinTheBudget() {
+        BinlistService hedged = hedgedBinlistService(1);
+        when(binlistAsyncClient.fetchCountry(anyString(), any())).thenAnswer(invocation -> new CompletableFuture<>());
+
+        try {
+            Deadline.set(Deadline.after(Duration.ofMillis(200)));
+            assertThrows(BinlistUnavailableException.class, () -> hedged.resolve("45717360"));
+            Deadline.set(Deadline.after(Duration.ofMillis(200)));
+            assertThrows(BinlistUnavailableException.class, () -> hedged.resolve("41111111"));
+            // An expired deadline does not even reach Binlist
+            Deadline.set(Deadline.after(Duration.ZERO));
+            assertThrows(BinlistUnavailableException.class, () -> hedged.resolve("52000000"));
+        } finally {
+            Deadline.clear();
+        }
+
+        verify(binlistAsyncClient, times(3)).fetchCountry(anyString(), any());
+        assertEquals(1, meterRegistry.counter("binlist.hedges", "outcome", "sent").count());
+        assertEquals(1, meterRegistry.counter("binlist.hedges", "outcome", "budget_exhausted").count());
+        assertEquals(3, meterRegistry.counter("binlist.errors", "type", "deadline").count());
+        assertEquals(0, meterRegistry.counter("binlist.hedge.wins").count());
+    }
+
+    @Test
+    public void testResolveStaleServesLastKnownCountry() {
+        when(restTemplate.getForEntity(BINLIST_URL, BinlistDto.class))
+                .thenReturn(ResponseEntity.ok(BinlistDto.ofCountry("DK")));
+        binlistService.resolve("45717360");
+
+        BinResolution stale = binlistService.resolveStale("4571736000000000");
+        assertEquals("DK", stale.getCountry());
+        assertEquals(BinResolution.Source.STALE_CACHE, stale.getSource());
+        assertNull(binlistService.resolveStale("41111111"));
+    }
+}
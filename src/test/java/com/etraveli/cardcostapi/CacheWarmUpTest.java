@@ -0,0 +1,184 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.entity.BinCountry;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import com.etraveli.cardcostapi.service.BinCountryCache;
+import com.etraveli.cardcostapi.service.BinCountryStore;
+import com.etraveli.cardcostapi.service.BinlistService;
+import com.etraveli.cardcostapi.service.CacheWarmUp;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshot;
+import com.etraveli.cardcostapi.service.CountryCostTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CacheWarmUpTest {
+
+    @Mock
+    private ClearingCostSnapshot clearingCostSnapshot;
+
+    @Mock
+    private BinCountryStore binCountryStore;
+
+    @Mock
+    private BinlistService binlistService;
+
+    private final PricingProperties pricingProperties = new PricingProperties();
+
+    private final BinlistProperties binlistProperties = new BinlistProperties();
+
+    private BinCountryCache binCountryCache;
+
+    private CacheWarmUp cacheWarmUp;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        binCountryCache = new BinCountryCache(binlistProperties);
+        when(clearingCostSnapshot.refresh()).thenReturn(CountryCostTable.of(List.of(
+                new ClearingCost(1L, "US", new BigDecimal("5.00")),
+                new ClearingCost(2L, "GR", new BigDecimal("15.00")),
+                new ClearingCost(3L, "OTHER", new BigDecimal("10.00")))));
+        cacheWarmUp = new CacheWarmUp(clearingCostSnapshot, binCountryStore, binCountryCache, binlistService,
+                pricingProperties, binlistProperties, new DefaultResourceLoader(), Executors.newFixedThreadPool(4));
+    }
+
+    @Test
+    public void testLoadsCostsAndMostRecentStoredBins() {
+        when(binCountryStore.findRecent(1000)).thenReturn(List.of(
+                new BinCountry("45717360", "DK", Instant.now()),
+                new BinCountry("41111111", "US", Instant.now())));
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        assertEquals(3, report.costs());
+        assertEquals(2, report.bins());
+        assertEquals("DK", binCountryCache.getIfPresent("4571736000000000"));
+        verifyNoInteractions(binlistService);
+    }
+
+    @Test
+    public void testResolvesBinsListedInFile(@TempDir Path directory) throws IOException {
+        Path bins = Files.writeString(directory.resolve("hot-bins.txt"), """
+                # most used first
+                45717360
+                41111111
+                4111
+                52000000
+                """);
+        pricingProperties.getWarmUp().setBinsLocation(bins.toUri().toString());
+        pricingProperties.getWarmUp().setTopBins(2);
+        when(binlistService.resolve(anyString())).thenReturn(new BinResolution("DK", BinResolution.Source.REMOTE));
+        when(binlistService.resolve("41111111")).thenThrow(new ResourceNotFoundException("Issuing country not found"));
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        assertEquals(1, report.bins());
+        assertEquals(1, report.failedBins());
+        verify(binlistService, times(2)).resolve(anyString());
+        verify(binlistService, never()).resolve("52000000");
+        verify(binCountryStore, never()).findRecent(anyInt());
+    }
+
+    @Test
+    public void testFileBinsAreReadFromTheStoreBeforeCallingBinlist(@TempDir Path directory) throws IOException {
+        useBinsFile(directory, "45717360", "41111111");
+        when(binCountryStore.findAll(List.of("45717360", "41111111"))).thenReturn(Map.of("45717360", "DK"));
+        when(binlistService.resolve("41111111")).thenReturn(new BinResolution("US", BinResolution.Source.REMOTE));
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        assertEquals(2, report.bins());
+        assertEquals("DK", binCountryCache.getIfPresent("4571736000000000"));
+        verify(binlistService, times(1)).resolve(anyString());
+        verify(binlistService, never()).resolve("45717360");
+    }
+
+    @Test
+    public void testBinlistLookupsAreCappedByTheRateLimit(@TempDir Path directory) throws IOException {
+        useBinsFile(directory, "45717360", "41111111", "52000000", "37000000", "60110000");
+        pricingProperties.getWarmUp().setTimeout(Duration.ofSeconds(2));
+        binlistProperties.getRateLimit().setLimitForPeriod(1);
+        binlistProperties.getRateLimit().setBurst(1);
+        when(binlistService.resolve(anyString())).thenReturn(new BinResolution("DK", BinResolution.Source.REMOTE));
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        // One call up front and one per second of the timeout
+        assertEquals(3, report.bins());
+        assertEquals(2, report.skippedBins());
+        verify(binlistService, times(3)).resolve(anyString());
+        verify(binlistService, never()).resolve("60110000");
+    }
+
+    @Test
+    public void testUnfinishedLookupsAreCancelledAtTheTimeout(@TempDir Path directory) throws Exception {
+        useBinsFile(directory, "45717360", "41111111", "52000000");
+        pricingProperties.getWarmUp().setTimeout(Duration.ofMillis(200));
+        binlistProperties.getRateLimit().setEnabled(false);
+        binlistProperties.getExecutor().setPoolSize(1);
+        when(binlistService.resolve(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return new BinResolution("DK", BinResolution.Source.REMOTE);
+        });
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+        Thread.sleep(1_000);
+
+        assertEquals(1, report.unfinished());
+        assertEquals(2, report.skippedBins());
+        verify(binlistService, times(1)).resolve(anyString());
+    }
+
+    @Test
+    public void testUnreadableBinsFileFallsBackToTheStore(@TempDir Path directory) {
+        pricingProperties.getWarmUp().setBinsLocation(directory.resolve("missing.txt").toUri().toString());
+        when(binCountryStore.findRecent(1000)).thenReturn(List.of(new BinCountry("45717360", "DK", Instant.now())));
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        assertEquals(1, report.bins());
+        assertEquals("DK", binCountryCache.getIfPresent("45717360"));
+        verifyNoInteractions(binlistService);
+    }
+
+    private void useBinsFile(Path directory, String... bins) throws IOException {
+        Path file = Files.writeString(directory.resolve("hot-bins.txt"), String.join("\n", bins));
+        pricingProperties.getWarmUp().setBinsLocation(file.toUri().toString());
+    }
+
+    @Test
+    public void testWarmUpIsBoundedInTime() {
+        pricingProperties.getWarmUp().setTimeout(Duration.ofMillis(200));
+        when(binCountryStore.findRecent(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+
+        assertEquals(3, report.costs());
+        assertEquals(1, report.unfinished());
+    }
+}
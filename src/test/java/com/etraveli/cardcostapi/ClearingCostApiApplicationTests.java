@@ -0,0 +1,16 @@
+package com.etraveli.cardcostapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Starts the application with its default configuration, so that invalid properties or schedules
+ * fail the build instead of the deployment.
+ */
+@SpringBootTest
+public class ClearingCostApiApplicationTests {
+
+    @Test
+    public void contextLoads() {
+    }
+}
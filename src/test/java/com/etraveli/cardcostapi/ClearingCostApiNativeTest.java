@@ -0,0 +1,108 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.exception.InvalidCardNumberException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end test of the whole application (Flyway migrations on H2, JPA, JSON binding and the Binlist client)
+ * against a stub Binlist that knows a single BIN.
+ * It runs on the JVM with the other tests, and compiled into a native image with {@code mvn -PnativeTest test},
+ * which only runs the tests tagged "native".
+ */
+@Tag("native")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "binlist.store.enabled=false",
+        "pricing.warm-up.enabled=false"
+})
+public class ClearingCostApiNativeTest {
+
+    private static final String COST_URL = "/api/clearing-cost/payment-cards-cost?cardNumber={cardNumber}";
+    private static final String STREAM_URL = "/api/clearing-cost/payment-cards-cost/stream";
+
+    private static HttpServer stubBinlist;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void binlistProperties(DynamicPropertyRegistry registry) throws IOException {
+        stubBinlist = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubBinlist.createContext("/", exchange -> {
+            boolean known = exchange.getRequestURI().getPath().endsWith("/45717360");
+            byte[] body = known
+                    ? "{\"country\":{\"alpha2\":\"US\"}}".getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(known ? 200 : 404, known ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubBinlist.start();
+        registry.add("binlist.api.base-url", () -> "http://localhost:" + stubBinlist.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStubBinlist() {
+        stubBinlist.stop(0);
+    }
+
+    @Test
+    public void testPricesACardFromTheMigratedCostsAndBinlist() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(COST_URL, Map.class, "4571736000000000");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("US", response.getBody().get("country"));
+        assertEquals(5.0, ((Number) response.getBody().get("cost")).doubleValue());
+    }
+
+    @Test
+    public void testUnknownBinIsNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity(COST_URL, String.class, "4111111100000002");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testInvalidCardNumberIsBadRequest() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(COST_URL, Map.class, "1234");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(InvalidCardNumberException.MESSAGE, response.getBody().get("message"));
+    }
+
+    @Test
+    public void testStreamsOneResultPerCard() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        ResponseEntity<String> response = restTemplate.postForEntity(STREAM_URL,
+                new HttpEntity<>("4571736000000000\n1234\n", headers), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        String[] lines = response.getBody().split("\n");
+        assertEquals("{\"index\":0,\"country\":\"US\",\"cost\":5.00}", lines[0]);
+        assertEquals("{\"index\":1,\"error\":\"" + InvalidCardNumberException.MESSAGE + "\"}", lines[1]);
+    }
+}
@@ -0,0 +1,29 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.ClearingCostApiRuntimeHints;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClearingCostApiRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    public void testRegistersMigrationsEntitiesAndExceptionHandler() {
+        new ClearingCostApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/h2/V1__create_tables.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/mysql/V1__create_tables.sql")
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ClearingCost.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GlobalExceptionHandler.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints));
+    }
+}
@@ -1,30 +1,49 @@
 package com.etraveli.cardcostapi;
 
 import com.etraveli.cardcostapi.controller.ClearingCostController;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.etraveli.cardcostapi.dto.BatchCostRequest;
+import com.etraveli.cardcostapi.dto.ClearingCostImportResult;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
 import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.service.IClearingCostAsyncService;
 import com.etraveli.cardcostapi.service.IClearingCostService;
+import com.etraveli.cardcostapi.service.PricingResponseCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 public class ClearingCostControllerTest {
 
     @Mock
     private IClearingCostService clearingCostService;
 
+    @Mock
+    private IClearingCostAsyncService clearingCostAsyncService;
+
+    @Mock
+    private PricingResponseCache pricingResponseCache;
+
     @InjectMocks
     private ClearingCostController clearingCostController;
 
@@ -43,6 +62,18 @@ public class ClearingCostControllerTest {
         assertEquals(clearingCost, response.getBody());
     }
 
+    @Test
+    public void testImportClearingCostsCsv() throws IOException {
+        ClearingCostImportResult result = new ClearingCostImportResult(1, 1, 0, 0);
+        when(clearingCostService.importClearingCosts(List.of(new ClearingCost(null, "US", new BigDecimal("5.00")),
+                new ClearingCost(null, "DK", new BigDecimal("7.50"))), true)).thenReturn(result);
+
+        ResponseEntity<ClearingCostImportResult> response = clearingCostController.importClearingCostsCsv(
+                new StringReader("country_code,cost\nUS,5.00\nDK,7.50\n"), true);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
     @Test
     public void testGetAllClearingCosts() {
         ClearingCost cost1 = new ClearingCost(1L, "US", new BigDecimal("5.00"));
@@ -80,4 +111,49 @@ public class ClearingCostControllerTest {
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
+    @Test
+    public void testCalculateClearingCostResolvesOnce() {
+        ClearingCostResolution resolution = new ClearingCostResolution("US", 500L,
+                ClearingCostResolution.CostSource.COUNTRY, false, false);
+        byte[] body = "{\"country\":\"US\",\"cost\":5.00}".getBytes(StandardCharsets.UTF_8);
+        when(clearingCostService.resolveClearingCost("45717360")).thenReturn(resolution);
+        when(pricingResponseCache.body(resolution)).thenReturn(body);
+
+        ResponseEntity<byte[]> response = clearingCostController.calculateClearingCost("45717360");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(body, response.getBody());
+        verify(clearingCostService, times(1)).resolveClearingCost("45717360");
+        verify(clearingCostService, never()).getCountryCodeFromCardNumber(anyString());
+        verify(clearingCostService, never()).isPanValid(anyString());
+    }
+
+    @Test
+    public void testCalculateClearingCostAsync() {
+        ClearingCostResolution resolution = new ClearingCostResolution("US", 500L,
+                ClearingCostResolution.CostSource.COUNTRY, false, false);
+        when(clearingCostAsyncService.resolveClearingCostAsync("45717360"))
+                .thenReturn(CompletableFuture.completedFuture(resolution));
+        byte[] body = "{\"country\":\"US\",\"cost\":5.00}".getBytes(StandardCharsets.UTF_8);
+        when(pricingResponseCache.body(resolution)).thenReturn(body);
+
+        ResponseEntity<byte[]> response = clearingCostController.calculateClearingCostAsync("45717360").join();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body, response.getBody());
+        verifyNoInteractions(clearingCostService);
+    }
+
+    @Test
+    public void testCalculateClearingCosts() {
+        List<String> cardNumbers = List.of("45717360", "45717361");
+        List<BatchCostItem> items = List.of(BatchCostItem.ofCost(0, "US", new BigDecimal("5.00")),
+                BatchCostItem.ofError(1, "Invalid card number. Please check the format and length."));
+        when(clearingCostService.calculateClearingCosts(cardNumbers)).thenReturn(items);
+
+        ResponseEntity<List<BatchCostItem>> response =
+                clearingCostController.calculateClearingCosts(new BatchCostRequest(cardNumbers));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(items, response.getBody());
+    }
+
 }
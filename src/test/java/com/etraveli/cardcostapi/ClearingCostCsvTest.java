@@ -0,0 +1,36 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.service.ClearingCostCsv;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClearingCostCsvTest {
+
+    @Test
+    public void testParsesLinesSkippingHeaderAndComments() throws IOException {
+        List<ClearingCost> costs = ClearingCostCsv.parse(new StringReader("""
+                country_code, cost
+                # finance export
+                US,5.00
+
+                GR, 15
+                """));
+
+        assertEquals(List.of(new ClearingCost(null, "US", new BigDecimal("5.00")),
+                new ClearingCost(null, "GR", new BigDecimal("15"))), costs);
+    }
+
+    @Test
+    public void testRejectsMalformedLines() {
+        assertThrows(IllegalArgumentException.class, () -> ClearingCostCsv.parse(new StringReader("US;5.00")));
+        assertThrows(IllegalArgumentException.class, () -> ClearingCostCsv.parse(new StringReader("US,five")));
+    }
+}
@@ -1,22 +1,53 @@
 package com.etraveli.cardcostapi;
 
-import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.etraveli.cardcostapi.dto.BinResolution;
+import com.etraveli.cardcostapi.dto.ClearingCostImportResult;
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
 import com.etraveli.cardcostapi.service.BinlistService;
 import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import com.etraveli.cardcostapi.exception.BinlistUnavailableException;
+import com.etraveli.cardcostapi.exception.InvalidCardNumberException;
+import com.etraveli.cardcostapi.exception.ResourceNotFoundException;
+import com.etraveli.cardcostapi.repository.ClearingCostChangeRepository;
 import com.etraveli.cardcostapi.repository.ClearingCostRepository;
 import com.etraveli.cardcostapi.service.ClearingCostService;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshot;
+import com.etraveli.cardcostapi.service.ClearingCostsChangedEvent;
+import com.etraveli.cardcostapi.service.CountryCostTable;
+import com.etraveli.cardcostapi.service.LocalBinResolver;
+import com.etraveli.cardcostapi.service.IClearingCostService;
+import com.etraveli.cardcostapi.service.PricingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 public class ClearingCostServiceTest {
@@ -24,15 +55,47 @@ public class ClearingCostServiceTest {
     @Mock
     private ClearingCostRepository clearingCostRepository;
 
+    @Mock
+    private ClearingCostChangeRepository clearingCostChangeRepository;
+
     @Mock
     private BinlistService binlistService;
 
+    @Mock
+    private LocalBinResolver localBinResolver;
+
+    @Mock
+    private ClearingCostSnapshot clearingCostSnapshot;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Executor binLookupExecutor;
+
+    @Spy
+    private PricingProperties pricingProperties = new PricingProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PricingMetrics pricingMetrics = new PricingMetrics(meterRegistry);
+
     @InjectMocks
     private ClearingCostService clearingCostService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(binLookupExecutor).execute(any(Runnable.class));
+        givenCosts();
+    }
+
+    private void givenCosts(ClearingCost... costs) {
+        when(clearingCostSnapshot.table()).thenReturn(CountryCostTable.of(List.of(costs)));
     }
 
     @Test
@@ -43,6 +106,67 @@ public class ClearingCostServiceTest {
         ClearingCost result = clearingCostService.saveClearingCost(clearingCost);
         assertEquals("US", result.getCountryCode());
         assertEquals(new BigDecimal("5.00"), result.getCost());
+        verify(eventPublisher, times(1)).publishEvent(any(ClearingCostsChangedEvent.class));
+    }
+
+    @Test
+    public void testSaveClearingCostUpdatesTheCostOfAnExistingCountry() {
+        ClearingCost existing = new ClearingCost(1L, "US", new BigDecimal("5.00"));
+        when(clearingCostRepository.findByCountryCode("US")).thenReturn(Optional.of(existing));
+
+        ClearingCost result = clearingCostService.saveClearingCost(new ClearingCost(null, "US", new BigDecimal("6.00")));
+        assertEquals(1L, result.getId());
+        assertEquals(new BigDecimal("6.00"), result.getCost());
+        verify(clearingCostRepository, never()).save(any(ClearingCost.class));
+        verify(clearingCostChangeRepository, times(1)).save(new ClearingCostChange("US"));
+    }
+
+    @Test
+    public void testImportClearingCostsUpsertsInOneGo() {
+        ClearingCost us = new ClearingCost(1L, "US", new BigDecimal("5.00"));
+        ClearingCost gr = new ClearingCost(2L, "GR", new BigDecimal("15.00"));
+        ClearingCost other = new ClearingCost(3L, "OTHER", new BigDecimal("10.00"));
+        when(clearingCostRepository.findAll()).thenReturn(List.of(us, gr, other));
+
+        ClearingCostImportResult result = clearingCostService.importClearingCosts(List.of(
+                new ClearingCost(null, "US", new BigDecimal("6.00")),
+                new ClearingCost(null, "GR", new BigDecimal("15.0")),
+                new ClearingCost(null, "DK", new BigDecimal("7.50"))), false);
+
+        assertEquals(new ClearingCostImportResult(1, 1, 1, 0), result);
+        assertEquals(new BigDecimal("6.00"), us.getCost());
+        verify(clearingCostRepository).saveAll(List.of(new ClearingCost(null, "DK", new BigDecimal("7.50"))));
+        verify(clearingCostRepository).deleteAllInBatch(List.of());
+        verify(clearingCostChangeRepository).saveAll(List.of(new ClearingCostChange("US"), new ClearingCostChange("DK")));
+        verify(eventPublisher, times(1)).publishEvent(any(ClearingCostsChangedEvent.class));
+    }
+
+    @Test
+    public void testImportClearingCostsWithReplaceDeletesMissingCountries() {
+        ClearingCost us = new ClearingCost(1L, "US", new BigDecimal("5.00"));
+        ClearingCost gr = new ClearingCost(2L, "GR", new BigDecimal("15.00"));
+        when(clearingCostRepository.findAll()).thenReturn(List.of(us, gr));
+
+        ClearingCostImportResult result = clearingCostService.importClearingCosts(
+                List.of(new ClearingCost(null, "US", new BigDecimal("5.00"))), true);
+
+        assertEquals(new ClearingCostImportResult(0, 0, 1, 1), result);
+        verify(clearingCostRepository).deleteAllInBatch(List.of(gr));
+        verify(clearingCostChangeRepository).saveAll(List.of(new ClearingCostChange("GR")));
+    }
+
+    @Test
+    public void testImportClearingCostsRejectsInvalidListsWithoutWriting() {
+        List<ClearingCost> repeated = List.of(new ClearingCost(null, "US", new BigDecimal("5.00")),
+                new ClearingCost(null, "US", new BigDecimal("6.00")));
+        List<ClearingCost> negative = List.of(new ClearingCost(null, "US", new BigDecimal("-1.00")));
+        List<ClearingCost> badCountry = List.of(new ClearingCost(null, "USA", new BigDecimal("5.00")));
+
+        assertThrows(IllegalArgumentException.class, () -> clearingCostService.importClearingCosts(List.of(), false));
+        assertThrows(IllegalArgumentException.class, () -> clearingCostService.importClearingCosts(repeated, false));
+        assertThrows(IllegalArgumentException.class, () -> clearingCostService.importClearingCosts(negative, false));
+        assertThrows(IllegalArgumentException.class, () -> clearingCostService.importClearingCosts(badCountry, false));
+        verifyNoInteractions(clearingCostRepository, clearingCostChangeRepository, eventPublisher);
     }
 
     @Test
@@ -77,6 +201,19 @@ public class ClearingCostServiceTest {
 
         ClearingCost result = clearingCostService.updateClearingCost(1L, updatedCost);
         assertEquals(new BigDecimal("10.00"), result.getCost());
+        verify(clearingCostChangeRepository, times(1)).save(new ClearingCostChange(null, "US", null));
+    }
+
+    @Test
+    public void testUpdateClearingCostLogsBothCountriesWhenTheCountryChanges() {
+        ClearingCost existingCost = new ClearingCost(1L, "US", new BigDecimal("5.00"));
+        ClearingCost updatedCost = new ClearingCost(1L, "GR", new BigDecimal("5.00"));
+        when(clearingCostRepository.findById(1L)).thenReturn(Optional.of(existingCost));
+        when(clearingCostRepository.save(any(ClearingCost.class))).thenReturn(updatedCost);
+
+        clearingCostService.updateClearingCost(1L, updatedCost);
+        verify(clearingCostChangeRepository, times(1)).save(new ClearingCostChange(null, "US", null));
+        verify(clearingCostChangeRepository, times(1)).save(new ClearingCostChange(null, "GR", null));
     }
 
     @Test
@@ -86,24 +223,208 @@ public class ClearingCostServiceTest {
 
         clearingCostService.deleteClearingCost(1L);
         verify(clearingCostRepository, times(1)).deleteById(1L);
+        verify(clearingCostChangeRepository, times(1)).save(new ClearingCostChange(null, "US", null));
+        verify(eventPublisher, times(1)).publishEvent(any(ClearingCostsChangedEvent.class));
     }
 
     @Test
     public void testCalculateClearingCost() {
-        // Set up the mock BinlistResponse
-        BinlistDto.Country country = new BinlistDto.Country();
-        country.setAlpha2("US");
-        BinlistDto binlistDto = new BinlistDto();
-        binlistDto.setCountry(country);
+        // Set up the mock Binlist resolution
+        when(binlistService.resolve("45717360")).thenReturn(new BinResolution("US", BinResolution.Source.REMOTE));
 
-        when(binlistService.getCountryCodeByCardNumber("45717360")).thenReturn(binlistDto);
-
-        // Set up the repository response for cost calculation
-        ClearingCost clearingCost = new ClearingCost(1L, "US", new BigDecimal("5.00"));
-        when(clearingCostRepository.findByCountryCode("US")).thenReturn(Optional.of(clearingCost));
+        // Set up the cost snapshot for cost calculation
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
 
         BigDecimal cost = clearingCostService.calculateClearingCost("45717360");
         assertEquals(new BigDecimal("5.00"), cost);
     }
-}
 
+    @Test
+    public void testResolveClearingCostCallsBinlistOnce() {
+        when(binlistService.resolve("45717360")).thenReturn(new BinResolution("US", BinResolution.Source.REMOTE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCost("45717360");
+        assertEquals("US", result.getCountry());
+        assertEquals(new BigDecimal("5.00"), result.getCost());
+        assertEquals(ClearingCostResolution.CostSource.COUNTRY, result.getSource());
+        assertFalse(result.isCached());
+        verify(binlistService, times(1)).resolve(anyString());
+        verify(clearingCostSnapshot, times(1)).table();
+        verifyNoInteractions(clearingCostRepository);
+    }
+
+    @Test
+    public void testResolveClearingCostUsesDefaultForUnknownCountry() {
+        when(binlistService.resolve("45717360")).thenReturn(new BinResolution("DK", BinResolution.Source.REMOTE));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCost("45717360");
+        assertEquals("DK", result.getCountry());
+        assertEquals(new BigDecimal("10.00"), result.getCost());
+        assertEquals(ClearingCostResolution.CostSource.DEFAULT, result.getSource());
+        verify(binlistService, times(1)).resolve(anyString());
+    }
+
+    @Test
+    public void testResolveClearingCostRecordsStageMetrics() {
+        when(binlistService.resolve("45717360")).thenReturn(new BinResolution("DK", BinResolution.Source.CACHE));
+
+        clearingCostService.resolveClearingCost("45717360");
+        assertEquals(1, meterRegistry.get("pricing.stage").tags("stage", "validation").timer().count());
+        assertEquals(1, meterRegistry.get("pricing.stage").tags("stage", "bin_resolution", "source", "cache")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("pricing.stage").tags("stage", "cost_lookup").timer().count());
+        assertEquals(1, meterRegistry.get("pricing.request").tags("country", "DK").timer().count());
+        assertEquals(1, meterRegistry.get("pricing.default.cost").tags("reason", "no_country_cost")
+                .counter().count());
+    }
+
+    @Test
+    public void testResolveClearingCostRejectsInvalidPanWithoutRemoteCall() {
+        assertThrows(InvalidCardNumberException.class, () -> clearingCostService.resolveClearingCost("45717361"));
+        verifyNoInteractions(binlistService);
+        verifyNoInteractions(clearingCostSnapshot);
+    }
+
+    @Test
+    public void testResolveClearingCostPrefersLocalBinTable() {
+        when(localBinResolver.resolve(45717360L)).thenReturn(new BinResolution("US", BinResolution.Source.LOCAL_TABLE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCost("45717360");
+        assertEquals("US", result.getCountry());
+        assertTrue(result.isCached());
+        verifyNoInteractions(binlistService);
+    }
+
+    @Test
+    public void testCalculateClearingCostsResolvesEachBinOnce() {
+        when(binlistService.resolve(startsWith("45717360"))).thenReturn(new BinResolution("DK", BinResolution.Source.REMOTE));
+        when(binlistService.resolve(startsWith("41111111"))).thenReturn(new BinResolution("US", BinResolution.Source.REMOTE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+
+        List<BatchCostItem> items = clearingCostService.calculateClearingCosts(
+                List.of("45717360", "4111111111111111", "45717361", "4571736000000000"));
+
+        assertEquals(4, items.size());
+        assertEquals("DK", items.get(0).getCountry());
+        assertEquals(new BigDecimal("10.00"), items.get(0).getCost());
+        assertEquals("US", items.get(1).getCountry());
+        assertEquals(new BigDecimal("5.00"), items.get(1).getCost());
+        assertNotNull(items.get(2).getError());
+        assertEquals(3, items.get(3).getIndex());
+        assertEquals("DK", items.get(3).getCountry());
+        verify(binlistService, times(2)).resolve(anyString());
+        verify(clearingCostSnapshot, times(1)).table();
+    }
+
+    @Test
+    public void testCalculateClearingCostsReportsUnresolvableBins() {
+        when(binlistService.resolve("45717360")).thenThrow(new ResourceNotFoundException("Issuing country not found for the card BIN."));
+
+        List<BatchCostItem> items = clearingCostService.calculateClearingCosts(List.of("45717360"));
+
+        assertEquals("Issuing country not found for the card BIN.", items.get(0).getError());
+        assertNull(items.get(0).getCost());
+    }
+
+    @Test
+    public void testCalculateClearingCostsReportsBinsRejectedByTheExecutor() {
+        when(binlistService.resolve(startsWith("41111111"))).thenReturn(new BinResolution("US", BinResolution.Source.REMOTE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+        doThrow(new RejectedExecutionException("queue full"))
+                .doAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(0).run();
+                    return null;
+                }).when(binLookupExecutor).execute(any(Runnable.class));
+
+        List<BatchCostItem> items = clearingCostService.calculateClearingCosts(
+                List.of("45717360", "4111111111111111", "4571736000000000"));
+
+        assertEquals(IClearingCostService.BUSY_ERROR, items.get(0).getError());
+        assertEquals("US", items.get(1).getCountry());
+        assertEquals(IClearingCostService.BUSY_ERROR, items.get(2).getError());
+        verify(binlistService, times(1)).resolve(anyString());
+    }
+
+    @Test
+    public void testResolveClearingCostServesStaleCountryWhenBinlistIsUnavailable() {
+        when(binlistService.resolve("45717360")).thenThrow(new BinlistUnavailableException("Binlist is unavailable."));
+        when(binlistService.resolveStale("45717360")).thenReturn(new BinResolution("US", BinResolution.Source.STALE_CACHE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCost("45717360");
+        assertEquals("US", result.getCountry());
+        assertEquals(new BigDecimal("5.00"), result.getCost());
+        assertTrue(result.isDegraded());
+    }
+
+    @Test
+    public void testResolveClearingCostFallsBackToOtherCost() {
+        pricingProperties.getDegraded().setPolicy(PricingProperties.DegradedPolicy.OTHER_COST);
+        when(binlistService.resolve("45717360")).thenThrow(new BinlistUnavailableException("Binlist is unavailable."));
+        givenCosts(new ClearingCost(1L, "OTHER", new BigDecimal("12.00")));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCost("45717360");
+        assertNull(result.getCountry());
+        assertEquals(new BigDecimal("12.00"), result.getCost());
+        assertEquals(ClearingCostResolution.CostSource.FALLBACK, result.getSource());
+        assertTrue(result.isDegraded());
+        verify(binlistService, never()).resolveStale(anyString());
+    }
+
+    @Test
+    public void testResolveClearingCostFailsWhenPolicyIsFail() {
+        pricingProperties.getDegraded().setPolicy(PricingProperties.DegradedPolicy.FAIL);
+        when(binlistService.resolve("45717360")).thenThrow(new BinlistUnavailableException("Binlist is unavailable."));
+
+        assertThrows(BinlistUnavailableException.class, () -> clearingCostService.resolveClearingCost("45717360"));
+    }
+
+    @Test
+    public void testResolveClearingCostAsyncPricesTheResolvedCountry() throws Exception {
+        CompletableFuture<BinResolution> pending = new CompletableFuture<>();
+        when(binlistService.resolveAsync("45717360")).thenReturn(pending);
+        givenCosts(new ClearingCost(1L, "DK", new BigDecimal("7.50")));
+
+        CompletableFuture<ClearingCostResolution> result = clearingCostService.resolveClearingCostAsync("45717360");
+        assertFalse(result.isDone());
+        pending.complete(new BinResolution("DK", BinResolution.Source.REMOTE));
+
+        assertEquals(new BigDecimal("7.50"), result.get(5, TimeUnit.SECONDS).getCost());
+        assertEquals("DK", result.get().getCountry());
+        verify(binlistService, never()).resolve(anyString());
+        assertEquals(1, meterRegistry.timer("pricing.request", "country", "DK").count());
+    }
+
+    @Test
+    public void testResolveClearingCostAsyncRejectsInvalidPan() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> clearingCostService.resolveClearingCostAsync("45717361").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InvalidCardNumberException.class, failure.getCause());
+        verifyNoInteractions(binlistService);
+    }
+
+    @Test
+    public void testResolveClearingCostAsyncServesStaleCountryWhenBinlistIsUnavailable() throws Exception {
+        when(binlistService.resolveAsync("45717360")).thenReturn(
+                CompletableFuture.failedFuture(new BinlistUnavailableException("Binlist is unavailable.")));
+        when(binlistService.resolveStale("45717360")).thenReturn(new BinResolution("US", BinResolution.Source.STALE_CACHE));
+        givenCosts(new ClearingCost(1L, "US", new BigDecimal("5.00")));
+
+        ClearingCostResolution result = clearingCostService.resolveClearingCostAsync("45717360").get(5, TimeUnit.SECONDS);
+        assertEquals("US", result.getCountry());
+        assertTrue(result.isDegraded());
+    }
+
+    @Test
+    public void testResolveClearingCostAsyncPropagatesUnknownBins() {
+        when(binlistService.resolveAsync("45717360")).thenReturn(
+                CompletableFuture.failedFuture(new ResourceNotFoundException("Issuing country not found for the card BIN.")));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> clearingCostService.calculateClearingCostAsync("45717360").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        verify(binlistService, never()).resolveStale(anyString());
+    }
+}
@@ -0,0 +1,128 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.entity.ClearingCostChange;
+import com.etraveli.cardcostapi.repository.ClearingCostChangeRepository;
+import com.etraveli.cardcostapi.repository.ClearingCostRepository;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshot;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshotHealthIndicator;
+import com.etraveli.cardcostapi.service.ClearingCostsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ClearingCostSnapshotTest {
+
+    @Mock
+    private ClearingCostRepository clearingCostRepository;
+
+    @Mock
+    private ClearingCostChangeRepository clearingCostChangeRepository;
+
+    @Spy
+    private PricingProperties pricingProperties = new PricingProperties();
+
+    @InjectMocks
+    private ClearingCostSnapshot clearingCostSnapshot;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testReadsDoNotQueryRepositoryAfterFirstLoad() {
+        when(clearingCostRepository.findAll()).thenReturn(List.of(
+                new ClearingCost(1L, "US", new BigDecimal("5.00")),
+                new ClearingCost(2L, "GR", new BigDecimal("15.00"))));
+
+        assertEquals(new BigDecimal("5.00"), clearingCostSnapshot.getCost("US"));
+        assertEquals(new BigDecimal("15.00"), clearingCostSnapshot.getCost("GR"));
+        assertNull(clearingCostSnapshot.getCost("DK"));
+        verify(clearingCostRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltOnChange() {
+        when(clearingCostRepository.findAll())
+                .thenReturn(List.of(new ClearingCost(1L, "US", new BigDecimal("5.00"))))
+                .thenReturn(List.of(new ClearingCost(1L, "US", new BigDecimal("7.50"))));
+
+        assertEquals(new BigDecimal("5.00"), clearingCostSnapshot.getCost("US"));
+        clearingCostSnapshot.onClearingCostsChanged(new ClearingCostsChangedEvent());
+        assertEquals(new BigDecimal("7.50"), clearingCostSnapshot.getCost("US"));
+    }
+
+    @Test
+    public void testPollReadsOnlyChangedCountries() {
+        Instant loadedAt = Instant.parse("2024-01-01T10:00:00Z");
+        when(clearingCostChangeRepository.findLastChangedAt()).thenReturn(loadedAt);
+        when(clearingCostRepository.findAll()).thenReturn(List.of(
+                new ClearingCost(1L, "US", new BigDecimal("5.00")),
+                new ClearingCost(2L, "GR", new BigDecimal("15.00"))));
+        clearingCostSnapshot.refresh();
+
+        when(clearingCostChangeRepository.findByChangedAtAfterOrderByChangedAtAsc(loadedAt.minusSeconds(5)))
+                .thenReturn(List.of(new ClearingCostChange(7L, "US", loadedAt.plusSeconds(1)),
+                        new ClearingCostChange(8L, "GR", loadedAt.plusSeconds(2))));
+        when(clearingCostRepository.findByCountryCodeIn(Set.of("US", "GR")))
+                .thenReturn(List.of(new ClearingCost(1L, "US", new BigDecimal("6.00"))));
+        clearingCostSnapshot.poll();
+
+        assertEquals(new BigDecimal("6.00"), clearingCostSnapshot.getCost("US"));
+        assertNull(clearingCostSnapshot.getCost("GR"));
+        verify(clearingCostRepository, times(1)).findAll();
+
+        // Both changes are still within the commit grace period: they are not applied twice
+        when(clearingCostChangeRepository.findByChangedAtAfterOrderByChangedAtAsc(loadedAt.minusSeconds(3)))
+                .thenReturn(List.of(new ClearingCostChange(7L, "US", loadedAt.plusSeconds(1)),
+                        new ClearingCostChange(8L, "GR", loadedAt.plusSeconds(2))));
+        clearingCostSnapshot.poll();
+        verify(clearingCostRepository, times(1)).findByCountryCodeIn(any());
+    }
+
+    @Test
+    public void testSnapshotIsReportedOutOfServiceWhenTooStale() {
+        ClearingCostSnapshotHealthIndicator health =
+                new ClearingCostSnapshotHealthIndicator(clearingCostSnapshot, pricingProperties);
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+        when(clearingCostRepository.findAll()).thenReturn(List.of());
+        clearingCostSnapshot.refresh();
+        assertEquals(Status.UP, health.health().getStatus());
+
+        pricingProperties.getSnapshot().setMaxStaleness(Duration.ZERO);
+        when(clearingCostChangeRepository.findByChangedAtAfterOrderByChangedAtAsc(any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        clearingCostSnapshot.poll();
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+    }
+
+    @Test
+    public void testPollReloadsEverythingAfterMissingTheChangeRetention() {
+        pricingProperties.getSnapshot().setChangeRetention(Duration.ZERO);
+        when(clearingCostRepository.findAll()).thenReturn(List.of());
+        clearingCostSnapshot.refresh();
+
+        clearingCostSnapshot.poll();
+        verify(clearingCostRepository, times(2)).findAll();
+        verify(clearingCostChangeRepository, never()).findByChangedAtAfterOrderByChangedAtAsc(any());
+    }
+}
@@ -0,0 +1,86 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.PricingProperties;
+import com.etraveli.cardcostapi.dto.BatchCostItem;
+import com.etraveli.cardcostapi.service.ClearingCostStreamService;
+import com.etraveli.cardcostapi.service.IClearingCostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ClearingCostStreamServiceTest {
+
+    @Mock
+    private IClearingCostService clearingCostService;
+
+    private ClearingCostStreamService clearingCostStreamService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PricingProperties properties = new PricingProperties();
+        properties.getStream().setWindow(2);
+        clearingCostStreamService = new ClearingCostStreamService(clearingCostService, Runnable::run,
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    public void testPriceStreamWritesOneResultPerLineInOrder() throws IOException {
+        when(clearingCostService.priceCard(0, "45717360")).thenReturn(BatchCostItem.ofCost(0, "DK", new BigDecimal("10.00")));
+        when(clearingCostService.priceCard(1, "4111111111111111")).thenReturn(BatchCostItem.ofCost(1, "US", new BigDecimal("5.00")));
+        when(clearingCostService.priceCard(2, "45717361")).thenReturn(BatchCostItem.ofError(2, "Invalid card number."));
+        String input = "45717360\n\n{\"cardNumber\": \"4111111111111111\"}\n45717361\n{not json\n";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        clearingCostStreamService.priceStream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("{\"index\":0,\"country\":\"DK\",\"cost\":10.00}", lines[0]);
+        assertEquals("{\"index\":1,\"country\":\"US\",\"cost\":5.00}", lines[1]);
+        assertEquals("{\"index\":2,\"error\":\"Invalid card number.\"}", lines[2]);
+        assertEquals("{\"index\":3,\"error\":\"Malformed line.\"}", lines[3]);
+        verify(clearingCostService, times(3)).priceCard(anyInt(), anyString());
+    }
+
+    @Test
+    public void testCardsRejectedByTheExecutorAreReportedWithoutAbortingTheStream() throws IOException {
+        when(clearingCostService.priceCard(anyInt(), anyString()))
+                .thenAnswer(invocation -> BatchCostItem.ofCost(invocation.getArgument(0), "DK", new BigDecimal("10.00")));
+        AtomicInteger submitted = new AtomicInteger();
+        Executor rejectsSecondCard = task -> {
+            if (submitted.incrementAndGet() == 2) {
+                throw new RejectedExecutionException("queue full");
+            }
+            task.run();
+        };
+        ClearingCostStreamService streamService = new ClearingCostStreamService(clearingCostService, rejectsSecondCard,
+                new ObjectMapper(), new PricingProperties());
+        String input = "45717360\n45717360\n45717360\n";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamService.priceStream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"index\":0,\"country\":\"DK\",\"cost\":10.00}", lines[0]);
+        assertEquals("{\"index\":1,\"error\":\"" + IClearingCostService.BUSY_ERROR + "\"}", lines[1]);
+        assertEquals("{\"index\":2,\"country\":\"DK\",\"cost\":10.00}", lines[2]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.service.CountryCostTable;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CountryCostTableTest {
+
+    @Test
+    public void testLooksUpCostsInMinorUnits() {
+        CountryCostTable table = CountryCostTable.of(List.of(
+                new ClearingCost(1L, "US", new BigDecimal("5.00")),
+                new ClearingCost(2L, "GR", new BigDecimal("15.5")),
+                new ClearingCost(3L, "AA", new BigDecimal("1.00")),
+                new ClearingCost(4L, "ZZ", new BigDecimal("2.00"))));
+
+        assertEquals(500L, table.cost("US"));
+        assertEquals(1_550L, table.cost("GR"));
+        assertEquals(100L, table.cost("AA"));
+        assertEquals(200L, table.cost("ZZ"));
+        assertEquals(CountryCostTable.NO_COST, table.cost("DK"));
+        assertEquals(4, table.size());
+    }
+
+    @Test
+    public void testRejectsCodesThatAreNotAlpha2() {
+        CountryCostTable table = CountryCostTable.of(List.of(
+                new ClearingCost(1L, "us", new BigDecimal("5.00")),
+                new ClearingCost(2L, "USA", new BigDecimal("5.00"))));
+
+        assertEquals(0, table.size());
+        assertEquals(CountryCostTable.NO_COST, table.cost("us"));
+        assertEquals(CountryCostTable.NO_COST, table.cost("U"));
+        assertEquals(CountryCostTable.NO_COST, table.cost("U["));
+        assertEquals(CountryCostTable.NO_COST, table.cost(null));
+    }
+
+    @Test
+    public void testDefaultCostIsOtherOrTen() {
+        assertEquals(CountryCostTable.DEFAULT_COST, CountryCostTable.EMPTY.defaultCost());
+
+        CountryCostTable table = CountryCostTable.of(List.of(
+                new ClearingCost(1L, "OTHER", new BigDecimal("12.00")),
+                new ClearingCost(2L, "OTHER", new BigDecimal("99.00"))));
+        assertEquals(1_200L, table.cost("OTHER"));
+        assertEquals(1_200L, table.defaultCost());
+    }
+
+    @Test
+    public void testWithCostsCopiesTheTable() {
+        CountryCostTable table = CountryCostTable.of(List.of(
+                new ClearingCost(1L, "US", new BigDecimal("5.00")),
+                new ClearingCost(2L, "GR", new BigDecimal("15.00"))));
+        Map<String, BigDecimal> changed = new HashMap<>();
+        changed.put("US", new BigDecimal("6.00"));
+        changed.put("GR", null);
+        changed.put("DK", new BigDecimal("7.50"));
+        changed.put("OTHER", new BigDecimal("12.00"));
+
+        CountryCostTable updated = table.withCosts(changed);
+        assertEquals(600L, updated.cost("US"));
+        assertEquals(CountryCostTable.NO_COST, updated.cost("GR"));
+        assertEquals(750L, updated.cost("DK"));
+        assertEquals(1_200L, updated.defaultCost());
+        assertEquals(3, updated.size());
+        assertEquals(1_500L, table.cost("GR"));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testConvertsBetweenBigDecimalAndMinorUnits() {
+        assertEquals(1_000L, CountryCostTable.toMinorUnits(new BigDecimal("10")));
+        assertEquals(1_001L, CountryCostTable.toMinorUnits(new BigDecimal("10.005")));
+        assertEquals(new BigDecimal("10.00"), CountryCostTable.toBigDecimal(1_000L));
+        assertEquals(new BigDecimal("0.05"), CountryCostTable.toBigDecimal(5L));
+    }
+}
@@ -0,0 +1,45 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.service.PanValidator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PanValidatorTest {
+
+    @Test
+    public void testValidateReturnsBinOfValidPan() {
+        assertEquals(45717360L, PanValidator.validate("4571736000000000"));
+        assertEquals(41111111L, PanValidator.validate("4111111111111111"));
+        assertEquals(45717360L, PanValidator.validate("45717360"));
+        assertEquals(12345674L, PanValidator.validate("12345674"));
+    }
+
+    @Test
+    public void testValidateRejectsInvalidPan() {
+        assertEquals(PanValidator.INVALID, PanValidator.validate(null));
+        assertEquals(PanValidator.INVALID, PanValidator.validate("45717361"));
+        assertEquals(PanValidator.INVALID, PanValidator.validate("4571736"));
+        assertEquals(PanValidator.INVALID, PanValidator.validate("45717360000000000000"));
+        assertEquals(PanValidator.INVALID, PanValidator.validate("4571 7360"));
+        assertEquals(PanValidator.INVALID, PanValidator.validate("4571736O"));
+    }
+
+    @Test
+    public void testValidateMatchesFormatAndLuhnChecks() {
+        // Odd and even lengths double different positions
+        assertTrue(PanValidator.isValid("79927398713"));
+        assertFalse(PanValidator.isValid("79927398710"));
+        assertTrue(PanValidator.isValid("378282246310005"));
+        assertTrue(PanValidator.isValid("6011111111111117"));
+    }
+
+    @Test
+    public void testIsValidFormatIgnoresLuhn() {
+        assertTrue(PanValidator.isValidFormat("45717361"));
+        assertFalse(PanValidator.isValidFormat("4571736a"));
+        assertFalse(PanValidator.isValidFormat(""));
+    }
+}
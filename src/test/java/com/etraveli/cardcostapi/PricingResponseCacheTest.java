@@ -0,0 +1,96 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.dto.ClearingCostResolution;
+import com.etraveli.cardcostapi.entity.ClearingCost;
+import com.etraveli.cardcostapi.service.ClearingCostSnapshot;
+import com.etraveli.cardcostapi.service.CountryCostTable;
+import com.etraveli.cardcostapi.service.PricingResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+public class PricingResponseCacheTest {
+
+    @Mock
+    private ClearingCostSnapshot clearingCostSnapshot;
+
+    private PricingResponseCache pricingResponseCache;
+
+    private final CountryCostTable costs =
+            CountryCostTable.of(List.of(new ClearingCost(1L, "US", new BigDecimal("5.00"))));
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pricingResponseCache = new PricingResponseCache(new ObjectMapper(), clearingCostSnapshot);
+        when(clearingCostSnapshot.table()).thenReturn(costs);
+    }
+
+    @Test
+    public void testSerializesEachCountryOnce() {
+        byte[] first = pricingResponseCache.body(resolution("US", 500L, false));
+        byte[] second = pricingResponseCache.body(resolution("US", 500L, false));
+
+        assertEquals("{\"country\":\"US\",\"cost\":5.00}", json(first));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testCostChangeDropsPreviousBodies() {
+        byte[] before = pricingResponseCache.body(resolution("US", 500L, false));
+        when(clearingCostSnapshot.table()).thenReturn(costs.withCosts(Map.of("US", new BigDecimal("6.00"))));
+
+        byte[] after = pricingResponseCache.body(resolution("US", 600L, false));
+
+        assertEquals("{\"country\":\"US\",\"cost\":5.00}", json(before));
+        assertEquals("{\"country\":\"US\",\"cost\":6.00}", json(after));
+    }
+
+    @Test
+    public void testDefaultCostIsCachedPerCountry() {
+        byte[] first = pricingResponseCache.body(resolution("DK", CountryCostTable.DEFAULT_COST, false));
+
+        assertEquals("{\"country\":\"DK\",\"cost\":10.00}", json(first));
+        assertSame(first, pricingResponseCache.body(resolution("DK", CountryCostTable.DEFAULT_COST, false)));
+    }
+
+    @Test
+    public void testResolutionPricedFromAnotherTableIsNotCached() {
+        byte[] stale = pricingResponseCache.body(resolution("US", 450L, false));
+        byte[] current = pricingResponseCache.body(resolution("US", 500L, false));
+
+        assertEquals("{\"country\":\"US\",\"cost\":4.50}", json(stale));
+        assertEquals("{\"country\":\"US\",\"cost\":5.00}", json(current));
+    }
+
+    @Test
+    public void testDegradedResponsesAreSerializedEveryTime() {
+        byte[] first = pricingResponseCache.body(resolution("US", 500L, true));
+        byte[] second = pricingResponseCache.body(resolution("US", 500L, true));
+
+        assertEquals("{\"country\":\"US\",\"cost\":5.00,\"degraded\":true}", json(first));
+        assertNotSame(first, second);
+        assertEquals("{\"country\":\"US\",\"cost\":5.00}",
+                json(pricingResponseCache.body(resolution("US", 500L, false))));
+    }
+
+    private static ClearingCostResolution resolution(String country, long cost, boolean degraded) {
+        return new ClearingCostResolution(country, cost, ClearingCostResolution.CostSource.COUNTRY, false, degraded);
+    }
+
+    private static String json(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
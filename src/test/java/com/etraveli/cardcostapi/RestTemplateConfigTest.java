@@ -0,0 +1,91 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.config.BinlistProperties;
+import com.etraveli.cardcostapi.config.RestTemplateConfig;
+import com.etraveli.cardcostapi.dto.BinlistDto;
+import com.etraveli.cardcostapi.service.Deadline;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RestTemplateConfigTest {
+
+    private static final long STUB_DELAY_MILLIS = 1_000;
+
+    private HttpServer stubBinlist;
+    private ExecutorService stubExecutor;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private RestTemplate binlistRestTemplate;
+    private String url;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        stubExecutor = Executors.newCachedThreadPool();
+        stubBinlist = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubBinlist.setExecutor(stubExecutor);
+        stubBinlist.createContext("/", exchange -> {
+            try {
+                Thread.sleep(STUB_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"country\":{\"alpha2\":\"DK\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubBinlist.start();
+        url = "http://localhost:" + stubBinlist.getAddress().getPort() + "/45717360";
+
+        BinlistProperties properties = new BinlistProperties();
+        RestTemplateConfig config = new RestTemplateConfig();
+        connectionManager = config.binlistConnectionManager(properties);
+        binlistRestTemplate = config.binlistRestTemplate(connectionManager, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionManager.close();
+        stubBinlist.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testBinlistCallGivesUpAtTheDeadline() {
+        long start = System.nanoTime();
+        try {
+            Deadline.set(Deadline.after(Duration.ofMillis(200)));
+            assertThrows(ResourceAccessException.class, () -> binlistRestTemplate.getForEntity(url, BinlistDto.class));
+        } finally {
+            Deadline.clear();
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(STUB_DELAY_MILLIS));
+    }
+
+    @Test
+    public void testBinlistCallWithoutDeadlineUsesTheReadTimeout() {
+        BinlistDto answer = binlistRestTemplate.getForEntity(url, BinlistDto.class).getBody();
+
+        assertEquals("DK", answer.getCountry().getAlpha2());
+    }
+}
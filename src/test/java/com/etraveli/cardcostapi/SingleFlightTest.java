@@ -0,0 +1,105 @@
+package com.etraveli.cardcostapi;
+
+import com.etraveli.cardcostapi.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 32;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void testConcurrentCallersShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> singleFlight.execute("45717360", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "DK";
+                }), executor));
+            }
+            // Let every caller join the flight before it completes
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (CompletableFuture<String> result : results) {
+                assertEquals("DK", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailuresAreNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("45717360", () -> {
+            throw new IllegalStateException("Binlist down");
+        }));
+
+        assertEquals("DK", singleFlight.execute("45717360", () -> "DK"));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testCallerJoiningAFlightWaitsAtMostMaxWait() {
+        CompletableFuture<String> stuck = singleFlight.executeAsync("45717360", CompletableFuture::new);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("45717360", () -> "DK",
+                TimeUnit.MILLISECONDS.toNanos(100), () -> new IllegalStateException("timed out")));
+        assertFalse(stuck.isDone());
+        assertEquals(1, singleFlight.inFlight());
+    }
+
+    @Test
+    public void testAsyncCallersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("45717360", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("45717360", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("US");
+        });
+        assertEquals(1, singleFlight.inFlight());
+
+        pending.complete("DK");
+        assertEquals("DK", first.join());
+        assertEquals("DK", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+}